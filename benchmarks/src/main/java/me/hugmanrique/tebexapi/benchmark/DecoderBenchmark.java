@@ -0,0 +1,86 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.data.Category;
+import me.hugmanrique.tebexapi.data.OfflineCommand;
+import me.hugmanrique.tebexapi.data.PagedResult;
+import me.hugmanrique.tebexapi.data.Payment;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.utils.TebexDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming decode of full response bodies, from bytes to data objects. The payment
+ * benchmarks run once per payment so their score reads as payments per second
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecoderBenchmark {
+    private final TebexDecoder decoder = new TebexDecoder();
+
+    private byte[] listing;
+    private byte[] payments;
+    private byte[] paymentsPaged;
+    private byte[] offlineCommands;
+
+    @Setup
+    public void setup() {
+        listing = Fixtures.load(Fixtures.LISTING);
+        payments = Fixtures.load(Fixtures.PAYMENTS);
+        paymentsPaged = Fixtures.load(Fixtures.PAYMENTS_PAGED);
+        offlineCommands = Fixtures.load(Fixtures.OFFLINE_COMMANDS);
+    }
+
+    @Benchmark
+    public Set<Category> listing() throws IOException, TebexException {
+        return decoder.parseListing(Fixtures.reader(listing));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public Set<Payment> payments() throws IOException, TebexException {
+        return decoder.parsePayments(Fixtures.reader(payments));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public PagedResult<Payment> paymentsPaged() throws IOException, TebexException {
+        return decoder.parsePaymentPage(Fixtures.reader(paymentsPaged));
+    }
+
+    /**
+     * What a delivery check reads: the id and the player UUID of every payment of a page
+     */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void paymentsPagedScan(Blackhole blackhole) throws IOException, TebexException {
+        scan(decoder.parsePaymentPage(Fixtures.reader(paymentsPaged)), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void paymentsPagedLazyScan(Blackhole blackhole) throws IOException, TebexException {
+        scan(decoder.parseLazyPaymentPage(Fixtures.reader(paymentsPaged)), blackhole);
+    }
+
+    private static void scan(PagedResult<Payment> page, Blackhole blackhole) {
+        for (Payment payment : page.getResults()) {
+            blackhole.consume(payment.getId());
+            blackhole.consume(payment.getPlayerUuid());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(250)
+    public Set<OfflineCommand> offlineCommands() throws IOException, TebexException {
+        return decoder.parseOfflineCommands(Fixtures.reader(offlineCommands));
+    }
+}
@@ -0,0 +1,56 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.utils.TebexDates;
+import me.hugmanrique.tebexapi.utils.TebexUuids;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date and UUID decoding against the SimpleDateFormat and regex based parsing they replaced
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodingPrimitivesBenchmark {
+    private static final String DATE = "2023-04-05T10:11:12+00:00";
+    private static final String UUID_DASHED = "069a79f4-44e9-4726-a5be-fca90e38aaf5";
+    private static final String UUID_UNDASHED = "069a79f444e94726a5befca90e38aaf5";
+
+    private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssX", Locale.ENGLISH);
+
+    @Benchmark
+    public long date() {
+        return TebexDates.parseEpochMillis(DATE);
+    }
+
+    @Benchmark
+    public Date dateSimpleDateFormat() throws ParseException {
+        return dateFormat.parse(DATE);
+    }
+
+    @Benchmark
+    public UUID uuidDashed() {
+        return TebexUuids.parse(UUID_DASHED);
+    }
+
+    @Benchmark
+    public UUID uuidUndashed() {
+        return TebexUuids.parse(UUID_UNDASHED);
+    }
+
+    @Benchmark
+    public UUID uuidRegex() {
+        return UUID.fromString(UUID_UNDASHED.replaceFirst(
+                "([0-9a-fA-F]{8})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]+)", "$1-$2-$3-$4-$5"));
+    }
+}
@@ -0,0 +1,123 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.TebexApi;
+import me.hugmanrique.tebexapi.TebexConfig;
+import me.hugmanrique.tebexapi.data.*;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.http.HttpUrlConnectionTransport;
+import me.hugmanrique.tebexapi.http.RetryPolicy;
+import me.hugmanrique.tebexapi.http.RetryingTransport;
+import me.hugmanrique.tebexapi.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link TebexApi} from 64 threads against a local {@link StandInServer}, measuring the
+ * whole request: scheduling, connection reuse, the HTTP exchange and decoding. Sample time mode
+ * reports the p50, p99 and p99.9 latency of each call next to the throughput; run with
+ * {@code -bm thrpt} for calls per second only.
+ *
+ * The stand-in adds {@code latencyMillis} to every response and fails {@code errorRate} of them
+ * with a 500, which the client retries. Reads of the same path from many threads share one
+ * request, so the payment, gift card and online command calls pick a random id to measure
+ * separate requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = "-Dhttp.maxConnections=64")
+public class EndToEndBenchmark {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef01234567";
+
+    @Param({"0", "20"})
+    public int latencyMillis;
+
+    @Param({"0", "0.02"})
+    public double errorRate;
+
+    private StandInServer server;
+    private TebexApi api;
+    private MetricsRegistry metrics;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = StandInServer.builder()
+                .latency(latencyMillis, TimeUnit.MILLISECONDS)
+                .errorRate(errorRate)
+                .payments(10_000)
+                .build();
+
+        RetryPolicy retries = RetryPolicy.builder()
+                .maxAttempts(4)
+                .backoff(10, 100, TimeUnit.MILLISECONDS)
+                .build();
+
+        api = new TebexApi(TebexConfig.builder(SECRET).baseUrl(server.getBaseUrl()).build(),
+                new RetryingTransport(new HttpUrlConnectionTransport(), retries));
+        metrics = new MetricsRegistry();
+        api.setListener(metrics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println(server.getRequests() + " requests, " + server.getInjectedErrors() + " injected errors");
+        System.out.println(metrics);
+        server.close();
+    }
+
+    @Benchmark
+    public Information information() {
+        return api.getInformation();
+    }
+
+    @Benchmark
+    public Set<Category> listing() {
+        return api.getListing();
+    }
+
+    @Benchmark
+    public PlayerQueue queue() {
+        return api.getQueue(1);
+    }
+
+    @Benchmark
+    public PagedResult<Payment> paymentsPage() {
+        return api.getPaymentsPaged(ThreadLocalRandom.current().nextInt(1, 101));
+    }
+
+    @Benchmark
+    public List<OnlineCommand> onlineCommands() {
+        return api.getOnlineCommands(200000 + ThreadLocalRandom.current().nextInt(100));
+    }
+
+    @Benchmark
+    public GiftCard giftCard() {
+        try {
+            return api.getGiftCard(ThreadLocalRandom.current().nextInt(1, 1_000_000));
+        } catch (TebexException e) {
+            // Errors that outlast the retries count as a completed call, like in production
+            return null;
+        }
+    }
+
+    @Benchmark
+    public boolean deleteCommands() {
+        int first = ThreadLocalRandom.current().nextInt(1_000_000);
+        try {
+            api.deleteCommands(Arrays.asList(first, first + 1, first + 2, first + 3, first + 4));
+            return true;
+        } catch (TebexException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.http.TebexResponse;
+import me.hugmanrique.tebexapi.utils.JsonStreamReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Tebex-shaped response bodies stored in {@code src/main/resources/fixtures}:
+ * <ul>
+ *     <li>{@code listing.json}: 24 categories, some with subcategories, ~900 packages</li>
+ *     <li>{@code payments.json}: a 100 entry {@code /payments} array</li>
+ *     <li>{@code payments-paged.json}: a 100 entry {@code /payments?paged=1} page</li>
+ *     <li>{@code offline-commands.json}: 250 queued offline commands</li>
+ * </ul>
+ */
+final class Fixtures {
+    static final String LISTING = "listing.json";
+    static final String PAYMENTS = "payments.json";
+    static final String PAYMENTS_PAGED = "payments-paged.json";
+    static final String OFFLINE_COMMANDS = "offline-commands.json";
+
+    private Fixtures() {
+    }
+
+    static byte[] load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown fixture " + name);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static JsonStreamReader reader(byte[] body) {
+        return new JsonStreamReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    static TebexResponse response(byte[] body) {
+        return new TebexResponse(200, Collections.emptyMap(), new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,44 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.utils.JsonReader;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a response body into text and into an org.json tree, the path
+ * the deprecated {@link JsonReader} methods still take
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonReaderBenchmark {
+    @Param({Fixtures.LISTING, Fixtures.PAYMENTS_PAGED, Fixtures.OFFLINE_COMMANDS})
+    public String fixture;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = Fixtures.load(fixture);
+    }
+
+    @Benchmark
+    public String readAll() throws IOException {
+        return JsonReader.readAll(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public JSONObject readJson() throws IOException, TebexException {
+        return JsonReader.readJson(Fixtures.response(body), false);
+    }
+}
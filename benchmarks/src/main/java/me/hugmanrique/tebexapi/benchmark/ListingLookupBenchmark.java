@@ -0,0 +1,92 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.data.Category;
+import me.hugmanrique.tebexapi.data.Listing;
+import me.hugmanrique.tebexapi.data.Package;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.utils.TebexDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a package from the decoded listing, the way purchase handlers and store GUIs do
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingLookupBenchmark {
+    private Set<Category> categories;
+    private Listing listing;
+    private Category lastCategory;
+    private int lastPackageId;
+    private String lastPackageName;
+
+    @Setup
+    public void setup() throws IOException, TebexException {
+        categories = new TebexDecoder().parseListing(Fixtures.reader(Fixtures.load(Fixtures.LISTING)));
+        listing = new Listing(categories);
+
+        List<Category> list = new ArrayList<>(categories);
+        lastCategory = list.get(list.size() - 1);
+
+        List<Package> packages = new ArrayList<>(lastCategory.getPackages());
+        Package last = packages.get(packages.size() - 1);
+        lastPackageId = last.getId();
+        lastPackageName = last.getName();
+    }
+
+    @Benchmark
+    public Package categoryGetPackageById() {
+        return lastCategory.getPackage(lastPackageId);
+    }
+
+    @Benchmark
+    public Package categoryGetPackageByName() {
+        return lastCategory.getPackage(lastPackageName);
+    }
+
+    /**
+     * Finding a package by id without knowing its category, walking the whole tree
+     */
+    @Benchmark
+    public Package treeGetPackageById() {
+        return find(categories, lastPackageId);
+    }
+
+    @Benchmark
+    public Package listingGetPackageById() {
+        return listing.getPackage(lastPackageId);
+    }
+
+    @Benchmark
+    public Package listingGetPackageByName() {
+        return listing.getPackage(lastPackageName);
+    }
+
+    @Benchmark
+    public Listing buildListing() {
+        return new Listing(categories);
+    }
+
+    private static Package find(Set<Category> categories, int id) {
+        for (Category category : categories) {
+            Package pack = category.getPackage(id);
+            if (pack == null) {
+                pack = find(category.getSubCategories(), id);
+            }
+            if (pack != null) {
+                return pack;
+            }
+        }
+
+        return null;
+    }
+}
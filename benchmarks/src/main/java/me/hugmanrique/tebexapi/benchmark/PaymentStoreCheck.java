@@ -0,0 +1,309 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import me.hugmanrique.tebexapi.TebexApi;
+import me.hugmanrique.tebexapi.TebexAsyncApi;
+import me.hugmanrique.tebexapi.TebexConfig;
+import me.hugmanrique.tebexapi.data.PackageMap;
+import me.hugmanrique.tebexapi.data.Payment;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.http.HttpUrlConnectionTransport;
+import me.hugmanrique.tebexapi.sync.MappedPayments;
+import me.hugmanrique.tebexapi.sync.PaymentStore;
+import me.hugmanrique.tebexapi.sync.PaymentSync;
+import me.hugmanrique.tebexapi.utils.TebexDates;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Checks the {@link PaymentStore} file format and {@link PaymentSync} end to end: payments
+ * round-trip, torn and corrupt tails are truncated on open, {@link PaymentStore#map()} can run
+ * while payments are appended, and a sync against a failing {@link StandInServer} that keeps
+ * getting new payments resumes where it stopped and stores every payment exactly once.
+ *
+ * Run it with {@code java -cp target/benchmarks.jar me.hugmanrique.tebexapi.benchmark.PaymentStoreCheck},
+ * it exits with status 1 if a check fails.
+ */
+public final class PaymentStoreCheck {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef01234567";
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private PaymentStoreCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("tebex-payment-store");
+
+        try {
+            roundTrip(directory.resolve("round-trip.bin"));
+            tornTail(directory.resolve("torn-tail.bin"));
+            corruptRecord(directory.resolve("corrupt.bin"));
+            foreignFile(directory.resolve("foreign.bin"));
+            mapWhileAppending(directory.resolve("concurrent.bin"));
+            resumableSync(directory.resolve("sync.bin"));
+        } catch (Exception | AssertionError e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+
+        System.out.println("All payment store checks passed");
+    }
+
+    private static void roundTrip(Path path) throws IOException {
+        List<Payment> payments = payments(1, 5000);
+
+        try (PaymentStore store = PaymentStore.open(path)) {
+            store.append(payments.subList(0, 2000));
+            store.append(payments.subList(2000, payments.size()));
+        }
+
+        try (PaymentStore store = PaymentStore.open(path)) {
+            check(store.size() == payments.size(), "reopened store has " + store.size() + " payments");
+            check(store.getHighWaterMark() == 5000, "high-water mark is " + store.getHighWaterMark());
+
+            List<Payment> read = store.readAll();
+            MappedPayments mapped = store.map();
+            check(mapped.size() == payments.size(), "mapped view has " + mapped.size() + " payments");
+
+            for (int i = 0; i < payments.size(); i++) {
+                checkSame(payments.get(i), read.get(i));
+                checkSame(payments.get(i), mapped.get(i));
+            }
+            check(read.get(12).getDate() == null, "unknown date read back as " + read.get(12).getDate());
+            check(mapped.indexOf(4321) == 4320, "indexOf(4321) is " + mapped.indexOf(4321));
+        }
+
+        System.out.println("round trip: " + payments.size() + " payments");
+    }
+
+    private static void tornTail(Path path) throws IOException {
+        try (PaymentStore store = PaymentStore.open(path)) {
+            store.append(payments(1, 100));
+        }
+
+        // A crash in the middle of the last record
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (PaymentStore store = PaymentStore.open(path)) {
+            check(store.size() == 99, "torn store has " + store.size() + " payments");
+            check(store.getHighWaterMark() == 99, "torn store high-water mark is " + store.getHighWaterMark());
+            check(Files.size(path) < size - 3, "torn record wasn't truncated");
+
+            store.append(payments(100, 101));
+        }
+
+        try (PaymentStore store = PaymentStore.open(path)) {
+            check(store.size() == 200, "repaired store has " + store.size() + " payments");
+            checkSame(payments(100, 100).get(0), store.readAll().get(99));
+        }
+
+        System.out.println("torn tail: truncated and appended after it");
+    }
+
+    private static void corruptRecord(Path path) throws IOException {
+        long corruptAt;
+        try (PaymentStore store = PaymentStore.open(path)) {
+            store.append(payments(1, 50));
+            corruptAt = recordOffset(store, 30);
+        }
+
+        // Flip a byte in the payload of the 31st record, after its length and checksum
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            long position = corruptAt + RECORD_HEADER_SIZE + 10;
+            channel.read(value, position);
+            value.put(0, (byte) (value.get(0) ^ 0x5A)).rewind();
+            channel.write(value, position);
+        }
+
+        try (PaymentStore store = PaymentStore.open(path)) {
+            check(store.size() == 30, "corrupt store has " + store.size() + " payments");
+            check(store.getHighWaterMark() == 30, "corrupt store high-water mark is " + store.getHighWaterMark());
+            check(Files.size(path) == corruptAt, "corrupt store wasn't truncated at the bad record");
+        }
+
+        System.out.println("corrupt record: truncated at record 31");
+    }
+
+    private static void foreignFile(Path path) throws IOException {
+        Files.write(path, "not a payment store".getBytes(StandardCharsets.UTF_8));
+
+        try (PaymentStore store = PaymentStore.open(path)) {
+            throw new AssertionError("opened a file that isn't a payment store");
+        } catch (IOException expected) {
+            check(Files.size(path) == 19, "foreign file was modified");
+        }
+
+        System.out.println("foreign file: rejected");
+    }
+
+    private static void mapWhileAppending(Path path) throws Exception {
+        try (PaymentStore store = PaymentStore.open(path)) {
+            AtomicBoolean done = new AtomicBoolean();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int batch = 0; batch < 400; batch++) {
+                        store.append(payments(batch * 25 + 1, 25));
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.set(true);
+                }
+            });
+            writer.start();
+
+            int maps = 0;
+            while (!done.get()) {
+                MappedPayments mapped = store.map();
+                for (int i = 0; i < mapped.size(); i++) {
+                    check(mapped.getId(i) == i + 1, "mapped payment " + i + " has id " + mapped.getId(i));
+                }
+                if (mapped.size() > 0) {
+                    checkSame(payments(mapped.size(), 1).get(0), mapped.get(mapped.size() - 1));
+                }
+                maps++;
+            }
+            writer.join();
+
+            check(store.map().size() == 10000, "final map has " + store.map().size() + " payments");
+            System.out.println("map while appending: " + maps + " consistent views");
+        }
+    }
+
+    private static void resumableSync(Path path) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try (StandInServer server = StandInServer.builder()
+                .payments(3000)
+                .latency(1, 5, TimeUnit.MILLISECONDS)
+                .errorRate(0.1)
+                .build();
+             PaymentStore store = PaymentStore.open(path)) {
+            TebexApi api = new TebexApi(TebexConfig.builder(SECRET).baseUrl(server.getBaseUrl()).build(), new HttpUrlConnectionTransport());
+            PaymentSync sync = new PaymentSync(new TebexAsyncApi(api, executor), store, 4);
+
+            // New purchases while the pages are read move the older payments to later pages
+            Thread purchases = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        server.addPayments(1);
+                        Thread.sleep(2);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            purchases.start();
+
+            int attempts = 0;
+            int failures = 0;
+            int resumed = 0;
+            while (true) {
+                attempts++;
+                int before = store.size();
+
+                try {
+                    sync.sync();
+                    if (!purchases.isAlive() && store.size() == server.getPayments()) {
+                        break;
+                    }
+                    Thread.sleep(20);
+                } catch (TebexException e) {
+                    failures++;
+                    if (store.size() > before) {
+                        resumed++;
+                    }
+                }
+                check(attempts < 500, "sync didn't finish after 500 attempts");
+            }
+
+            List<Payment> stored = store.readAll();
+            for (int i = 0; i < stored.size(); i++) {
+                check(stored.get(i).getId() == i + 1, "stored payment " + i + " has id " + stored.get(i).getId());
+            }
+            check(failures == 0 || resumed > 0, "no failed sync kept the pages it stored");
+
+            System.out.println("resumable sync: " + stored.size() + " payments in " + attempts + " attempts, "
+                    + failures + " failed (" + resumed + " kept their progress)");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long recordOffset(PaymentStore store, int index) throws IOException {
+        // Records are laid out back to back after the header
+        long position = HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(store.getPath(), StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            for (int i = 0; i < index; i++) {
+                length.clear();
+                channel.read(length, position);
+                position += RECORD_HEADER_SIZE + length.getInt(0);
+            }
+        }
+        return position;
+    }
+
+    private static List<Payment> payments(int firstId, int count) {
+        List<Payment> payments = new ArrayList<>(count);
+
+        for (int id = firstId; id < firstId + count; id++) {
+            PackageMap.Builder packages = new PackageMap.Builder();
+            for (int i = 0; i < id % 3; i++) {
+                packages.put(100 + id % 50 + i, "Package \u00e9" + i);
+            }
+
+            payments.add(new Payment(id, id * 0.25, id % 13 == 0 ? TebexDates.INVALID : 1672531200000L + id * 60000L,
+                    id % 7 == 0 ? null : "EUR", "\u20ac", 200000 + id % 500,
+                    id % 11 == 0 ? null : "Player" + id % 40,
+                    id % 5 == 0 ? null : new UUID(id, -id),
+                    Payment.Status.values()[id % Payment.Status.values().length], packages.build()));
+        }
+
+        return payments;
+    }
+
+    private static void checkSame(Payment expected, Payment actual) {
+        boolean same = expected.getId() == actual.getId()
+                && Double.compare(expected.getAmount(), actual.getAmount()) == 0
+                && expected.getEpochMillis() == actual.getEpochMillis()
+                && Objects.equals(expected.getCurrency(), actual.getCurrency())
+                && Objects.equals(expected.getCurrencySymbol(), actual.getCurrencySymbol())
+                && expected.getPlayerId() == actual.getPlayerId()
+                && Objects.equals(expected.getPlayerName(), actual.getPlayerName())
+                && Objects.equals(expected.getPlayerUuid(), actual.getPlayerUuid())
+                && expected.getStatus() == actual.getStatus()
+                && expected.getPackages().equals(actual.getPackages());
+
+        check(same, "payment " + expected.getId() + " read back as " + actual);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates Tebex-shaped response bodies of any size for the {@link StandInServer}. The output
+ * is deterministic, so two runs with the same sizes serve the same bytes.
+ */
+final class StandInPayloads {
+    static final int PAYMENTS_PER_PAGE = 100;
+
+    private static final String[] NAMES = {"Notch", "jeb_", "Dinnerbone", "Grumm", "CraftyFox", "Steve", "Alex", "Herobrine"};
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP"};
+    private static final String[] STATUSES = {"Complete", "Complete", "Complete", "Refund", "Chargeback"};
+    private static final String[] COMMANDS = {"eco give {username} 1000", "give {username} diamond 64", "lp user {username} parent add vip"};
+    private static final Instant FIRST_PAYMENT = Instant.parse("2023-01-01T00:00:00Z");
+
+    private final Random random = new Random(0x7eb3L);
+
+    static byte[] bytes(CharSequence json) {
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String error(int code, String message) {
+        return "{\"error_code\":" + code + ",\"error_message\":\"" + message + "\"}";
+    }
+
+    String information() {
+        return "{\"account\":{\"id\":1000,\"domain\":\"http://store.example.com\",\"name\":\"Stand-in Store\","
+                + "\"currency\":{\"iso_4217\":\"USD\",\"symbol\":\"$\"},\"online_mode\":true,\"game_type\":\"Minecraft (Java Edition)\","
+                + "\"log_events\":false},\"server\":{\"id\":2000,\"name\":\"Stand-in Server\"},"
+                + "\"analytics\":{\"internal\":{\"project\":\"stand-in\",\"key\":\"0000\"}}}";
+    }
+
+    String listing(int categories, int packagesPerCategory) {
+        StringBuilder json = new StringBuilder("{\"categories\":[");
+        int packageId = 100000;
+
+        for (int c = 0; c < categories; c++) {
+            if (c > 0) {
+                json.append(',');
+            }
+
+            json.append("{\"id\":").append(5000 + c).append(",\"order\":").append(c)
+                    .append(",\"name\":\"Category ").append(c).append("\",\"only_subcategories\":false,\"gui_item\":\"CHEST\",")
+                    .append("\"subcategories\":[],\"packages\":[");
+
+            for (int p = 0; p < packagesPerCategory; p++, packageId++) {
+                if (p > 0) {
+                    json.append(',');
+                }
+
+                boolean sale = random.nextInt(4) == 0;
+                json.append("{\"id\":").append(packageId).append(",\"order\":").append(p)
+                        .append(",\"name\":\"Package ").append(packageId).append("\",\"price\":\"").append(price())
+                        .append("\",\"image\":\"https://dunb17ur4ymx4.cloudfront.net/packages/images/").append(packageId)
+                        .append(".png\",\"gui_item\":\"DIAMOND_SWORD\",\"sale\":{\"active\":").append(sale)
+                        .append(",\"discount\":\"").append(sale ? "0.10" : "0.00")
+                        .append("\"},\"expiry_length\":0,\"expiry_period\":\"day\",\"type\":\"single\",\"category\":{\"id\":")
+                        .append(5000 + c).append(",\"name\":\"Category ").append(c)
+                        .append("\"},\"global_limit\":0,\"global_limit_period\":\"month\",\"user_limit\":0,\"user_limit_period\":\"month\",")
+                        .append("\"servers\":[{\"id\":2000,\"name\":\"Stand-in Server\"}],\"required_packages\":[],")
+                        .append("\"require_any\":false,\"create_giftcard\":false,\"show_until\":null,\"disable_gifting\":false,")
+                        .append("\"disable_quantity\":false}");
+            }
+
+            json.append("]}");
+        }
+
+        return json.append("]}").toString();
+    }
+
+    /**
+     * @param page The page, starting at 1
+     */
+    String paymentPage(int total, int page) {
+        int lastPage = Math.max(1, (total + PAYMENTS_PER_PAGE - 1) / PAYMENTS_PER_PAGE);
+        int from = (page - 1) * PAYMENTS_PER_PAGE;
+        int to = Math.min(total, from + PAYMENTS_PER_PAGE);
+
+        StringBuilder json = new StringBuilder("{\"total\":").append(total)
+                .append(",\"per_page\":").append(PAYMENTS_PER_PAGE)
+                .append(",\"current_page\":").append(page)
+                .append(",\"last_page\":").append(lastPage)
+                .append(",\"from\":").append(from + 1)
+                .append(",\"to\":").append(to)
+                .append(",\"data\":");
+
+        return payments(json, total, from, to).append('}').toString();
+    }
+
+    String latestPayments(int total, int limit) {
+        return payments(new StringBuilder(), total, 0, Math.min(total, limit)).toString();
+    }
+
+    /**
+     * Appends the payments from the newest one, so index 0 has the highest id
+     */
+    private StringBuilder payments(StringBuilder json, int total, int from, int to) {
+        json.append('[');
+
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                json.append(',');
+            }
+
+            int id = total - i;
+            String name = NAMES[id % NAMES.length];
+            String currency = CURRENCIES[id % CURRENCIES.length];
+
+            json.append("{\"id\":").append(id)
+                    .append(",\"amount\":\"").append(price())
+                    .append("\",\"date\":\"").append(FIRST_PAYMENT.plus(id * 17L, ChronoUnit.MINUTES).toString().replace("Z", "+00:00"))
+                    .append("\",\"gateway\":{\"id\":1,\"name\":\"PayPal\"},\"status\":\"").append(STATUSES[id % STATUSES.length])
+                    .append("\",\"email\":\"").append(name).append("@example.com\",\"player\":{\"id\":").append(200000 + id % 5000)
+                    .append(",\"name\":\"").append(name).append("\",\"uuid\":\"").append(uuid(id % 5000).replace("-", ""))
+                    .append("\"},\"currency\":{\"iso_4217\":\"").append(currency).append("\",\"symbol\":\"")
+                    .append(currency.equals("USD") ? "$" : currency.equals("EUR") ? "\\u20ac" : "\\u00a3")
+                    .append("\"},\"packages\":[{\"id\":").append(100000 + id % 500).append(",\"name\":\"Package ")
+                    .append(100000 + id % 500).append("\"}],\"notes\":[],\"creator_code\":null}");
+        }
+
+        return json.append(']');
+    }
+
+    String queue(int players, int nextCheck) {
+        StringBuilder json = new StringBuilder("{\"meta\":{\"execute_offline\":true,\"next_check\":").append(nextCheck)
+                .append(",\"more\":false},\"players\":[");
+
+        for (int i = 0; i < players; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+
+            json.append("{\"id\":").append(200000 + i).append(",\"name\":\"").append(NAMES[i % NAMES.length]).append(i)
+                    .append("\",\"uuid\":\"").append(uuid(i).replace("-", "")).append("\"}");
+        }
+
+        return json.append("]}").toString();
+    }
+
+    String offlineCommands(int commands) {
+        StringBuilder json = new StringBuilder("{\"meta\":{\"limited\":false},\"commands\":[");
+
+        for (int i = 0; i < commands; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+
+            appendCommand(json, 900000 + i, i).append(",\"player\":{\"id\":\"").append(200000 + i % 50)
+                    .append("\",\"name\":\"").append(NAMES[i % NAMES.length]).append("\",\"uuid\":\"").append(uuid(i % 50))
+                    .append("\"}}");
+        }
+
+        return json.append("]}").toString();
+    }
+
+    String onlineCommands(int playerId, int commands) {
+        StringBuilder json = new StringBuilder("{\"player\":{\"id\":\"").append(playerId).append("\"},\"commands\":[");
+
+        for (int i = 0; i < commands; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+
+            appendCommand(json, 800000 + playerId % 10000 * 100 + i, i).append('}');
+        }
+
+        return json.append("]}").toString();
+    }
+
+    private static StringBuilder appendCommand(StringBuilder json, int id, int index) {
+        return json.append("{\"id\":").append(id).append(",\"command\":\"").append(COMMANDS[index % COMMANDS.length])
+                .append("\",\"payment\":").append(19000 + index).append(",\"package\":").append(100000 + index % 500)
+                .append(",\"conditions\":{\"delay\":0,\"slots\":0}");
+    }
+
+    static String giftCard(int id, double starting, double remaining) {
+        return "{\"data\":{\"id\":" + id + ",\"code\":\"STANDIN" + id + "\",\"balance\":{\"starting\":" + starting
+                + ",\"remaining\":" + remaining + ",\"currency\":\"USD\"},\"note\":\"\",\"void\":false}}";
+    }
+
+    private String price() {
+        return (random.nextInt(50) + 1) + ".99";
+    }
+
+    private static String uuid(int seed) {
+        return new UUID(0x0140_0000_0000_4000L | seed, 0x8000_0000_0000_0000L | seed * 31L).toString();
+    }
+}
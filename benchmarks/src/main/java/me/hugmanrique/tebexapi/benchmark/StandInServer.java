@@ -0,0 +1,479 @@
+package me.hugmanrique.tebexapi.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for {@code plugin.tebex.io} that answers every endpoint {@code TebexApi} calls
+ * with generated data, so the client can be load tested offline:
+ * <ul>
+ *     <li>{@code GET /information}, {@code GET /listing}</li>
+ *     <li>{@code GET /queue}, {@code GET /queue/offline-commands}, {@code GET /queue/online-commands/{id}},
+ *     {@code DELETE /queue?ids[]=...}</li>
+ *     <li>{@code GET /payments?limit=}, {@code GET /payments?paged=1&page=}</li>
+ *     <li>{@code GET /gift-cards/{id}}, {@code POST /gift-cards}</li>
+ * </ul>
+ *
+ * Every response is delayed by a random latency, and a share of them can be turned into
+ * 500 or 429 responses to reproduce an outage or a rate limit. Bodies are generated once on
+ * {@link Builder#build()} so serving them costs as little as possible.
+ *
+ * It can also be run on its own to point a real server at it:
+ * {@code java -cp target/benchmarks.jar me.hugmanrique.tebexapi.benchmark.StandInServer [port] [latencyMillis] [errorRate]}
+ */
+public final class StandInServer implements AutoCloseable {
+    private static final int SECRET_LENGTH = 40;
+
+    static {
+        // The JDK server writes the headers and the body separately, without this Nagle's algorithm
+        // holds the body back until the client's delayed ACK, adding ~40 ms to every response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long minLatencyNanos;
+    private final long maxLatencyNanos;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final int commandsPerPlayer;
+
+    private final byte[] information;
+    private final byte[] listing;
+    private final byte[] queue;
+    private final byte[] offlineCommands;
+    private volatile PaymentPages paymentPages;
+
+    private final AtomicInteger nextGiftCardId = new AtomicInteger(1);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder deletedCommands = new LongAdder();
+
+    private StandInServer(Builder builder) throws IOException {
+        this.minLatencyNanos = builder.minLatencyNanos;
+        this.maxLatencyNanos = builder.maxLatencyNanos;
+        this.errorRate = builder.errorRate;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.commandsPerPlayer = builder.commandsPerPlayer;
+
+        StandInPayloads payloads = new StandInPayloads();
+        this.information = StandInPayloads.bytes(payloads.information());
+        this.listing = StandInPayloads.bytes(payloads.listing(builder.categories, builder.packagesPerCategory));
+        this.queue = StandInPayloads.bytes(payloads.queue(builder.queuedPlayers, builder.nextCheck));
+        this.offlineCommands = StandInPayloads.bytes(payloads.offlineCommands(builder.offlineCommands));
+
+        this.paymentPages = new PaymentPages(builder.payments);
+
+        this.executor = Executors.newFixedThreadPool(builder.threads, runnable -> {
+            Thread thread = new Thread(runnable, "Tebex Stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the URL to give to {@code TebexConfig.Builder#baseUrl(String)}
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Adds payments newer than the existing ones, moving the older ones to later pages
+     * like new purchases do on Tebex
+     * @param count The number of payments to add
+     */
+    public synchronized void addPayments(int count) {
+        paymentPages = new PaymentPages(paymentPages.total + Builder.count(count));
+    }
+
+    /**
+     * @return the number of payments of the store
+     */
+    public int getPayments() {
+        return paymentPages.total;
+    }
+
+    /**
+     * @return the number of requests received
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of requests answered with an injected 500 or 429
+     */
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    /**
+     * @return the number of command ids received by {@code DELETE /queue}
+     */
+    public long getDeletedCommands() {
+        return deletedCommands.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            // Read the request body so the connection can be reused
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) != -1) {
+                // Discard
+            }
+        }
+
+        requests.increment();
+        sleep();
+
+        String secret = exchange.getRequestHeaders().getFirst("X-Tebex-Secret");
+        if (secret == null || secret.length() != SECRET_LENGTH) {
+            send(exchange, 403, StandInPayloads.bytes(StandInPayloads.error(403, "Invalid server secret")));
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (rateLimitRate > 0 && random.nextDouble() < rateLimitRate) {
+            injectedErrors.increment();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 429, StandInPayloads.bytes(StandInPayloads.error(429, "Too Many Requests")));
+            return;
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            injectedErrors.increment();
+            send(exchange, 500, StandInPayloads.bytes(StandInPayloads.error(500, "Internal Server Error")));
+            return;
+        }
+
+        URI uri = exchange.getRequestURI();
+        String method = exchange.getRequestMethod();
+        String path = uri.getPath();
+        String query = uri.getRawQuery();
+
+        if (method.equals("GET")) {
+            handleGet(exchange, path, query);
+        } else if (method.equals("POST") && path.equals("/gift-cards")) {
+            int id = nextGiftCardId.getAndIncrement();
+            send(exchange, 200, StandInPayloads.bytes(StandInPayloads.giftCard(id, 10, 10)));
+        } else if (method.equals("DELETE") && path.equals("/queue")) {
+            deletedCommands.add(countIds(query));
+            send(exchange, 204, null);
+        } else {
+            notFound(exchange);
+        }
+    }
+
+    private void handleGet(HttpExchange exchange, String path, String query) throws IOException {
+        switch (path) {
+            case "/information":
+                send(exchange, 200, information);
+                return;
+            case "/listing":
+                send(exchange, 200, listing);
+                return;
+            case "/queue":
+                send(exchange, 200, queue);
+                return;
+            case "/queue/offline-commands":
+                send(exchange, 200, offlineCommands);
+                return;
+            case "/payments":
+                PaymentPages payments = paymentPages;
+                if ("1".equals(parameter(query, "paged"))) {
+                    int page = Math.max(1, parseInt(parameter(query, "page"), 1));
+                    byte[] body = page <= payments.pages.length ? payments.pages[page - 1]
+                            : StandInPayloads.bytes(new StandInPayloads().paymentPage(payments.total, page));
+                    send(exchange, 200, body);
+                } else {
+                    int limit = parseInt(parameter(query, "limit"), payments.total);
+                    send(exchange, 200, StandInPayloads.bytes(new StandInPayloads().latestPayments(payments.total, limit)));
+                }
+                return;
+            default:
+        }
+
+        if (path.startsWith("/queue/online-commands/")) {
+            int playerId = parseInt(path.substring("/queue/online-commands/".length()), -1);
+            if (playerId >= 0) {
+                send(exchange, 200, StandInPayloads.bytes(new StandInPayloads().onlineCommands(playerId, commandsPerPlayer)));
+                return;
+            }
+        } else if (path.startsWith("/gift-cards/")) {
+            int id = parseInt(path.substring("/gift-cards/".length()), -1);
+            if (id >= 0) {
+                send(exchange, 200, StandInPayloads.bytes(StandInPayloads.giftCard(id, 25, 25 - id % 25)));
+                return;
+            }
+        }
+
+        notFound(exchange);
+    }
+
+    private void sleep() {
+        long latency = minLatencyNanos == maxLatencyNanos ? minLatencyNanos
+                : ThreadLocalRandom.current().nextLong(minLatencyNanos, maxLatencyNanos + 1);
+
+        if (latency > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void notFound(HttpExchange exchange) throws IOException {
+        send(exchange, 404, StandInPayloads.bytes(StandInPayloads.error(404, "Not Found")));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Counts the {@code ids[]} parameters of a query, sent URL encoded as {@code ids%5B%5D}
+     */
+    private static int countIds(String query) {
+        if (query == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for (String pair : query.split("&")) {
+            if (pair.startsWith("ids%5B%5D=") || pair.startsWith("ids[]=")) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals == name.length() && pair.startsWith(name)) {
+                return pair.substring(equals + 1);
+            }
+        }
+
+        return null;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        StandInServer server = builder()
+                .port(args.length > 0 ? Integer.parseInt(args[0]) : 8080)
+                .latency(args.length > 1 ? Long.parseLong(args[1]) : 50, TimeUnit.MILLISECONDS)
+                .errorRate(args.length > 2 ? Double.parseDouble(args[2]) : 0)
+                .build();
+
+        System.out.println("Tebex stand-in listening on " + server.getBaseUrl());
+    }
+
+    /**
+     * The generated pages of {@code /payments} for a number of payments, swapped as a whole when payments are added
+     */
+    private static final class PaymentPages {
+        private final int total;
+        private final byte[][] pages;
+
+        private PaymentPages(int total) {
+            this.total = total;
+            this.pages = new byte[Math.max(1, (total + StandInPayloads.PAYMENTS_PER_PAGE - 1) / StandInPayloads.PAYMENTS_PER_PAGE)][];
+
+            StandInPayloads payloads = new StandInPayloads();
+            for (int page = 1; page <= pages.length; page++) {
+                pages[page - 1] = StandInPayloads.bytes(payloads.paymentPage(total, page));
+            }
+        }
+    }
+
+    public static final class Builder {
+        private int port;
+        private int threads = 256;
+        private long minLatencyNanos;
+        private long maxLatencyNanos;
+        private double errorRate;
+        private double rateLimitRate;
+        private int categories = 24;
+        private int packagesPerCategory = 40;
+        private int payments = 1000;
+        private int queuedPlayers = 100;
+        private int commandsPerPlayer = 3;
+        private int offlineCommands = 250;
+        private int nextCheck = 60;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the port to listen on, 0 (any free port) by default
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads serving requests, 256 by default. Each one is held for the whole latency
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be positive");
+            }
+
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Delays every response by a fixed time, none by default
+         */
+        public Builder latency(long latency, TimeUnit unit) {
+            return latency(latency, latency, unit);
+        }
+
+        /**
+         * Delays every response by a random time between min and max
+         */
+        public Builder latency(long min, long max, TimeUnit unit) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("The latency must be positive and max can't be lower than min");
+            }
+
+            this.minLatencyNanos = unit.toNanos(min);
+            this.maxLatencyNanos = unit.toNanos(max);
+            return this;
+        }
+
+        /**
+         * Sets the share of requests answered with 500 Internal Server Error, 0 by default
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = rate(errorRate);
+            return this;
+        }
+
+        /**
+         * Sets the share of requests answered with 429 Too Many Requests and a one second Retry-After, 0 by default
+         */
+        public Builder rateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rate(rateLimitRate);
+            return this;
+        }
+
+        /**
+         * Sets the size of {@code /listing}, by default 24 categories of 40 packages
+         */
+        public Builder listing(int categories, int packagesPerCategory) {
+            this.categories = count(categories);
+            this.packagesPerCategory = count(packagesPerCategory);
+            return this;
+        }
+
+        /**
+         * Sets the number of payments of the store, 1000 by default (10 pages)
+         */
+        public Builder payments(int payments) {
+            this.payments = count(payments);
+            return this;
+        }
+
+        /**
+         * Sets the size of the command queue, by default 100 players with 3 online commands each
+         * and 250 offline commands
+         */
+        public Builder queue(int players, int commandsPerPlayer, int offlineCommands) {
+            this.queuedPlayers = count(players);
+            this.commandsPerPlayer = count(commandsPerPlayer);
+            this.offlineCommands = count(offlineCommands);
+            return this;
+        }
+
+        /**
+         * Sets the {@code next_check} seconds returned by {@code /queue}, 60 by default
+         */
+        public Builder nextCheck(int seconds) {
+            this.nextCheck = count(seconds);
+            return this;
+        }
+
+        public StandInServer build() throws IOException {
+            return new StandInServer(this);
+        }
+
+        private static double rate(double rate) {
+            if (!(rate >= 0 && rate <= 1)) {
+                throw new IllegalArgumentException("Rates must be between 0 and 1");
+            }
+            return rate;
+        }
+
+        private static int count(int count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Sizes cannot be negative");
+            }
+            return count;
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package me.hugmanrique.tebexapi;
 
+import me.hugmanrique.tebexapi.cache.CachedEndpoint;
+import me.hugmanrique.tebexapi.cache.CachedResponse;
+import me.hugmanrique.tebexapi.cache.ResponseCache;
 import me.hugmanrique.tebexapi.data.*;
-import me.hugmanrique.tebexapi.data.Package;
-import me.hugmanrique.tebexapi.data.Payment.Status;
 import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.http.HttpUrlConnectionTransport;
+import me.hugmanrique.tebexapi.http.RequestPriority;
+import me.hugmanrique.tebexapi.http.TebexRequest;
+import me.hugmanrique.tebexapi.http.TebexResponse;
+import me.hugmanrique.tebexapi.http.TebexTransport;
+import me.hugmanrique.tebexapi.metrics.MetricsRegistry;
+import me.hugmanrique.tebexapi.metrics.TebexListener;
 import me.hugmanrique.tebexapi.utils.JsonReader;
-import me.hugmanrique.tebexapi.utils.JsonUtils;
-import org.apache.commons.lang3.EnumUtils;
+import me.hugmanrique.tebexapi.utils.JsonStreamReader;
+import me.hugmanrique.tebexapi.utils.TebexDecoder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -29,10 +38,12 @@ import java.util.stream.Stream;
  *         Spigot. Created the 14/05/2016.
  **/
 public class TebexApi {
-    private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssX", Locale.ENGLISH);
-
-    private static String url;
-    private String secret;
+    private volatile TebexConfig config;
+    private final TebexTransport transport;
+    private final TebexDecoder decoder = new TebexDecoder();
+    private volatile ResponseCache responseCache;
+    private volatile TebexListener listener = TebexListener.NONE;
+    private final ConcurrentHashMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance of {@link TebexApi}
@@ -41,52 +52,224 @@ public class TebexApi {
      */
 
     public TebexApi(String secret) throws TebexException {
-        if (secret == null || secret.length() != 40){
+        this(secret, new HttpUrlConnectionTransport());
+    }
+
+    /**
+     * Creates a new instance of {@link TebexApi} that sends its requests through the given transport
+     * @param secret The Tebex's secret key (The server secret key)
+     * @param transport The {@link TebexTransport} to use, it can be shared between instances
+     * @throws TebexException If the Secret key is not valid
+     */
+
+    public TebexApi(String secret, @NotNull TebexTransport transport) throws TebexException {
+        this(configOf(secret), transport);
+    }
+
+    /**
+     * Creates a new instance of {@link TebexApi} for the store described by the configuration
+     * @param config The {@link TebexConfig} of the store
+     */
+
+    public TebexApi(@NotNull TebexConfig config) {
+        this(config, new HttpUrlConnectionTransport());
+    }
+
+    /**
+     * Creates a new instance of {@link TebexApi} for the store described by the configuration.
+     * Instances for different stores can share the transport, and with it the connections and rate limiter
+     * @param config The {@link TebexConfig} of the store
+     * @param transport The {@link TebexTransport} to use, it can be shared between instances
+     */
+
+    public TebexApi(@NotNull TebexConfig config, @NotNull TebexTransport transport) {
+        this.config = Objects.requireNonNull(config, "config");
+        this.transport = Objects.requireNonNull(transport, "transport");
+    }
+
+    private static TebexConfig configOf(String secret) throws TebexException {
+        if (!TebexConfig.isValidSecret(secret)) {
             throw new TebexException("The secret key is not valid");
         }
 
-        setSecure(true);
-        this.secret = secret;
+        return TebexConfig.builder(secret).build();
+    }
+
+    public TebexConfig getConfig() {
+        return config;
+    }
+
+    public TebexTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets the cache used by {@link #getInformation()}, {@link #getListing()} and {@link #getGiftCard(int)}.
+     * Cached results are shared between callers, so the returned values must not be modified.
+     * Entries are keyed by path, so every store needs its own cache
+     * @param responseCache The {@link ResponseCache} to use, or null to disable caching
+     */
+    public void setResponseCache(@Nullable ResponseCache responseCache) {
+        this.responseCache = responseCache;
     }
 
-    private JSONObject jsonGet(String path) throws TebexException {
-        return JsonReader.readJsonFromUrlGet(url + path, secret, false);
+    @Nullable
+    public ResponseCache getResponseCache() {
+        return responseCache;
     }
 
-    private JSONObject jsonArrayGet(String path) throws TebexException {
-        return JsonReader.readJsonFromUrlGet(url + path, secret, true);
+    /**
+     * Sets the listener told about every request, e.g. a {@link MetricsRegistry}
+     * @param listener The {@link TebexListener} to use, or null to stop reporting
+     */
+    public void setListener(@Nullable TebexListener listener) {
+        this.listener = listener == null ? TebexListener.NONE : listener;
     }
 
-    private JSONObject jsonPost(String path, JSONObject post) throws TebexException {
-        return JsonReader.readJsonFromUrlPost(url + path, secret, false, post);
+    public TebexListener getListener() {
+        return listener;
     }
 
     /**
-     * Gets information about this store
-     * @return An {@link Information} containing all the values
+     * Runs a read, or waits for the identical one that is already running and shares its result.
+     * Every caller gets the same instance, so the decoder returns read-only collections
+     * @param key Identifies the read, usually the request path
      */
+    @SuppressWarnings("unchecked")
+    private <T> T shared(String key, Fetch<T> fetch) throws TebexException {
+        CompletableFuture<T> leader = new CompletableFuture<>();
+        CompletableFuture<T> running = (CompletableFuture<T>) inFlight.putIfAbsent(key, leader);
+
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TebexException("Interrupted while waiting for " + key, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TebexException) {
+                    throw (TebexException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+        }
 
-    public Information getInformation() {
+        // Forget the read before completing it, so later callers send a new request instead of getting this result
+        T value;
         try {
-            JSONObject obj = jsonGet("/information");
+            value = fetch.fetch();
+        } catch (TebexException | RuntimeException | Error e) {
+            inFlight.remove(key, leader);
+            leader.completeExceptionally(e);
+            throw e;
+        }
 
-            checkError(obj);
+        inFlight.remove(key, leader);
+        leader.complete(value);
+        return value;
+    }
 
-            JSONObject account = JsonUtils.safeGetObject(obj, "account");
-            JSONObject currency = JsonUtils.safeGetObject(account, "currency");
+    private <T> T get(String path, Endpoint endpoint, Decoder<T> decoder) throws TebexException {
+        return exchange(endpoint, TebexRequest.get(url(path)), (response, listener) -> decode(response, endpoint, listener, decoder));
+    }
 
-            JSONObject serverObj = JsonUtils.safeGetObject(obj, "server");
+    private <T> T post(String path, Endpoint endpoint, JSONObject post, Decoder<T> decoder) throws TebexException {
+        byte[] body = post.toString().getBytes(StandardCharsets.UTF_8);
+        return exchange(endpoint, TebexRequest.post(url(path), body), (response, listener) -> decode(response, endpoint, listener, decoder));
+    }
 
-            int serverId = JsonUtils.safeGetInt(serverObj, "id");
-            String serverName = JsonUtils.safeGetString(serverObj, "name");
+    private void delete(String path, Endpoint endpoint) throws TebexException {
+        exchange(endpoint, TebexRequest.delete(url(path)), (response, listener) -> decode(response, endpoint, listener, reader -> null));
+    }
 
-            //Analytics (Never heard of this, but including it... :S)
-            JSONObject analytics = JsonUtils.safeGetObject(JsonUtils.safeGetObject(obj, "analytics"), "internal");
+    private <T> T cachedGet(String path, Endpoint endpoint, CachedEndpoint cachedEndpoint, Decoder<T> decoder) throws TebexException {
+        ResponseCache cache = responseCache;
+        if (cache == null) {
+            return get(path, endpoint, decoder);
+        }
 
-            String projectAna = JsonUtils.safeGetString(analytics, "project");
-            String anaKey = JsonUtils.safeGetString(analytics, "key");
+        TebexListener listener = this.listener;
+        return cache.get(path, cachedEndpoint, previous -> revalidate(path, endpoint, previous, decoder),
+                outcome -> listener.onCacheLookup(endpoint.label, outcome));
+    }
+
+    private <T> CachedResponse<T> revalidate(String path, Endpoint endpoint, @Nullable CachedResponse<T> previous, Decoder<T> decoder)
+            throws TebexException {
+        TebexRequest request = TebexRequest.get(url(path));
 
-            return new Information(new Account(account, currency), serverId, serverName, projectAna, anaKey);
+        if (previous != null) {
+            if (previous.getEtag() != null) {
+                request = request.withHeader("If-None-Match", previous.getEtag());
+            }
+            if (previous.getLastModified() != null) {
+                request = request.withHeader("If-Modified-Since", previous.getLastModified());
+            }
+        }
+
+        return exchange(endpoint, request, (response, listener) -> {
+            if (previous != null && response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return previous.revalidated();
+            }
+
+            T value = decode(response, endpoint, listener, decoder);
+            return new CachedResponse<>(value, response.getHeader("ETag"), response.getHeader("Last-Modified"));
+        });
+    }
+
+    private String url(String path) {
+        return config.getBaseUrl() + path;
+    }
+
+    private <T> T exchange(Endpoint endpoint, TebexRequest request, ResponseHandler<T> handler) throws TebexException {
+        TebexConfig config = this.config;
+        TebexListener listener = this.listener;
+        long start = System.nanoTime();
+
+        try (TebexResponse response = transport.execute(request
+                .withPriority(endpoint.priority)
+                .withListener(endpoint.label, listener)
+                .withTimeouts(config.getConnectTimeoutMillis(), config.getReadTimeoutMillis())
+                .withHeader("X-Tebex-Secret", config.getSecret()))) {
+            T value = handler.handle(response, listener);
+            listener.onCompleted(endpoint.label, System.nanoTime() - start);
+
+            return value;
+        } catch (IOException e) {
+            TebexException error = new TebexException("Failed to read JSON from URL", e);
+            listener.onFailure(endpoint.label, error);
+            throw error;
+        } catch (TebexException e) {
+            listener.onFailure(endpoint.label, e);
+            throw e;
+        }
+    }
+
+    private <T> T decode(TebexResponse response, Endpoint endpoint, TebexListener listener, Decoder<T> decoder) throws TebexException, IOException {
+        long start = System.nanoTime();
+
+        JsonStreamReader reader = JsonReader.readJsonStream(response);
+        if (reader == null) {
+            throw new TebexException("Couldn't connect to the Tebex API");
+        }
+
+        T value = decoder.decode(reader);
+        listener.onParsed(endpoint.label, System.nanoTime() - start);
+
+        return value;
+    }
+
+    /**
+     * Gets information about this store
+     * @return An {@link Information} containing all the values
+     */
+
+    public Information getInformation() {
+        try {
+            return fetchInformation();
         } catch (TebexException e){
             e.printStackTrace();
         }
@@ -94,19 +277,20 @@ public class TebexApi {
         return null;
     }
 
+    Information fetchInformation() throws TebexException {
+        return shared("/information", () -> cachedGet("/information", Endpoint.INFORMATION, CachedEndpoint.INFORMATION, decoder::parseInformation));
+    }
+
     /**
      * Gets all the Categories and Packages your store has
-     * @return A {@link Set<Category>} containing all the Categories (also subcategories)
+     * @return An unmodifiable {@link Set<Category>} containing all the Categories (also subcategories),
+     * shared with the calls made at the same time
      * @see Category#getSubCategories() To see the Subcategories of a {@link Category}
      */
 
     public Set<Category> getListing(){
         try {
-            JSONObject obj = jsonGet("/listing");
-            checkError(obj);
-
-            JSONArray catArray = JsonUtils.safeGetArray(obj, "categories");
-            return loopCategory(catArray);
+            return fetchListing();
         } catch (TebexException e){
             e.printStackTrace();
         }
@@ -114,58 +298,31 @@ public class TebexApi {
         return null;
     }
 
-
-    private Set<Category> loopCategory(JSONArray array){
-        if (array==null){
-            return new LinkedHashSet<>();
+    Set<Category> fetchListing() throws TebexException {
+        if (responseCache == null) {
+            return shared("/listing", () -> get("/listing", Endpoint.LISTING, decoder::parseListing));
         }
-        Set<Category> categories = new LinkedHashSet<>();
 
-        for (int i = 0; i<array.length(); i++){
-            JSONObject object = JsonUtils.safeGetObject(array, i);
-            Category category = parseCategory(object);
-            categories.add(category);
-        }
-
-        return categories;
+        return fetchIndexedListing().getCategories();
     }
 
-    private Category parseCategory(JSONObject obj){
-        int id = JsonUtils.safeGetInt(obj, "id");
-        int order = JsonUtils.safeGetInt(obj, "order");
-        String name = JsonUtils.safeGetString(obj, "name");
-        Set<Category> childs = loopCategory(JsonUtils.safeGetArray(obj, "subcategories"));
-        Set<Package> packages = parsePackages(obj);
-
-        return new Category(id, order, name, childs, packages);
-    }
-
-    private Set<Package> parsePackages(JSONObject object){
-        JSONArray array = JsonUtils.safeGetArray(object, "packages");
-        Set<Package> packages = new LinkedHashSet<>();
-        if (array==null){
-            return packages;
-        }
+    /**
+     * Gets all the Categories and Packages your store has, indexed by id and name
+     * @return A {@link Listing} to look up any Package or Category of the store
+     */
 
-        for (int i = 0; i < array.length(); i++){
-            packages.add(parsePackage(JsonUtils.safeGetObject(array, i)));
+    public Listing getIndexedListing(){
+        try {
+            return fetchIndexedListing();
+        } catch (TebexException e){
+            e.printStackTrace();
         }
 
-        return packages;
+        return null;
     }
 
-    private Package parsePackage(JSONObject object){
-        int id = JsonUtils.safeGetInt(object, "id");
-        int order = JsonUtils.safeGetInt(object, "order");
-        String name = JsonUtils.safeGetString(object, "name");
-        double price = Double.parseDouble(JsonUtils.safeGetString(object, "price"));
-
-        JSONObject sale = JsonUtils.safeGetObject(object, "sale");
-
-        boolean saleActive = JsonUtils.safeGetBoolean(sale, "active");
-        double discount = Double.parseDouble(JsonUtils.safeGetString(sale, "discount"));
-
-        return new Package(id, order, name, price, saleActive, discount);
+    Listing fetchIndexedListing() throws TebexException {
+        return shared("/listing (indexed)", () -> cachedGet("/listing", Endpoint.LISTING, CachedEndpoint.LISTING, reader -> new Listing(decoder.parseListing(reader))));
     }
 
     /**
@@ -176,12 +333,7 @@ public class TebexApi {
 
     public PlayerQueue getQueue(int page){
         try {
-            JSONObject obj = jsonGet("/queue?page=" + page);
-            checkError(obj);
-
-            JSONObject meta = JsonUtils.safeGetObject(obj, "meta");
-
-            return new PlayerQueue(JsonUtils.safeGetBoolean(meta, "execute_offline"), JsonUtils.safeGetInt(obj, "next_check"), JsonUtils.safeGetBoolean(obj, "more"));
+            return fetchQueue(page);
         } catch (TebexException e){
             e.printStackTrace();
         }
@@ -189,24 +341,20 @@ public class TebexApi {
         return null;
     }
 
+    PlayerQueue fetchQueue(int page) throws TebexException {
+        String path = "/queue?page=" + page;
+        return shared(path, () -> get(path, Endpoint.QUEUE, decoder::parseQueue));
+    }
+
     /**
      * Gets a {@link Set<OfflineCommand>} of Offline commands that were executed
-     * @return A {@link Set<OfflineCommand>} containing all the executed offline commands
+     * @return An unmodifiable {@link Set<OfflineCommand>} containing all the executed offline commands,
+     * shared with the calls made at the same time
      */
 
     public Set<OfflineCommand> getOfflineCommands(){
         try {
-            JSONObject obj = jsonGet("/queue/offline-commands");
-            checkError(obj);
-
-            JSONArray array = JsonUtils.safeGetArray(obj, "commands");
-            Set<OfflineCommand> offlineCommands = new LinkedHashSet<>();
-
-            for (int i = 0; i < (array==null ? 0 : array.length()); i++){
-                offlineCommands.add(parseOfflineCmd(JsonUtils.safeGetObject(array, i)));
-            }
-
-            return offlineCommands;
+            return fetchOfflineCommands();
         } catch (TebexException e){
             e.printStackTrace();
         }
@@ -214,42 +362,64 @@ public class TebexApi {
         return null;
     }
 
-    private OfflineCommand parseOfflineCmd(JSONObject obj){
-        int id = JsonUtils.safeGetInt(obj, "id");
-        String cmd = JsonUtils.safeGetString(obj, "command");
-        String payment = JsonUtils.safeGetString(obj, "payment");
-        String packageId = JsonUtils.safeGetString(obj, "package");
-        int delay = JsonUtils.safeGetInt(JsonUtils.safeGetObject(obj, "conditions"), "delay");
+    Set<OfflineCommand> fetchOfflineCommands() throws TebexException {
+        return shared("/queue/offline-commands", () -> get("/queue/offline-commands", Endpoint.OFFLINE_COMMANDS, decoder::parseOfflineCommands));
+    }
+
+    /**
+     * Marks commands as executed so they are removed from the queue. Use a
+     * {@link me.hugmanrique.tebexapi.queue.CommandAcknowledger} to batch many of them
+     * @param commandIds The ids of the executed {@link OfflineCommand OfflineCommands} or {@link OnlineCommand OnlineCommands}
+     * @throws TebexException If the commands couldn't be deleted
+     */
 
-        JSONObject player = JsonUtils.safeGetObject(obj, "player");
-        int playerId = JsonUtils.safeGetInt(player, "id");
-        String playerName = JsonUtils.safeGetString(player, "name");
+    public void deleteCommands(@NotNull Collection<Integer> commandIds) throws TebexException {
+        if (commandIds.isEmpty()) {
+            return;
+        }
 
-        String uuidString = JsonUtils.safeGetString(player, "uuid");
-        UUID uuid = uuidString==null||uuidString.isEmpty() ? null : UUID.fromString(uuidString);
+        StringBuilder path = new StringBuilder("/queue");
+        char separator = '?';
 
-        return new OfflineCommand(id, cmd, payment, packageId, delay, playerId, playerName, uuid);
+        for (int id : commandIds) {
+            path.append(separator).append("ids%5B%5D=").append(id);
+            separator = '&';
+        }
+
+        delete(path.toString(), Endpoint.DELETE_COMMANDS);
     }
 
     /**
-     * Gets a list of the latest payments in a {@link Payment} package way
-     * @param limit The number of {@link Payment}s to retrieve. Tebex limits this to 100
-     * @return {@link Set<Payment>} containing all the payments
+     * Gets the commands that have to be executed while a player is online
+     * @param playerId The Tebex id of the player, see {@link QueuedPlayer#getId()}
+     * @return An unmodifiable {@link List<OnlineCommand>} containing the due commands of the player,
+     * shared with the calls made at the same time
      */
 
-    public Set<Payment> getLatestPayments(int limit){
+    public List<OnlineCommand> getOnlineCommands(int playerId){
         try {
-            JSONObject obj = jsonArrayGet("/payments" + (limit == -1 ? "" : "?limit=" + limit));
-            checkError(obj);
+            return fetchOnlineCommands(playerId);
+        } catch (TebexException e){
+            e.printStackTrace();
+        }
 
-            JSONArray payments = JsonUtils.safeGetArray(obj, "main");
-            Set<Payment> paymentSet = new LinkedHashSet<>();
+        return null;
+    }
 
-            for (int i = 0; i<(payments==null ? 0 : payments.length()); i++){
-                paymentSet.add(parsePayment(JsonUtils.safeGetObject(payments, i)));
-            }
+    List<OnlineCommand> fetchOnlineCommands(int playerId) throws TebexException {
+        String path = "/queue/online-commands/" + playerId;
+        return shared(path, () -> get(path, Endpoint.ONLINE_COMMANDS, decoder::parseOnlineCommands));
+    }
 
-            return paymentSet;
+    /**
+     * Gets a list of the latest payments in a {@link Payment} package way
+     * @param limit The number of {@link Payment}s to retrieve. Tebex limits this to 100
+     * @return An unmodifiable {@link Set<Payment>} containing all the payments, shared with the calls made at the same time
+     */
+
+    public Set<Payment> getLatestPayments(int limit){
+        try {
+            return fetchLatestPayments(limit);
         } catch (TebexException e){
             e.printStackTrace();
         }
@@ -257,32 +427,43 @@ public class TebexApi {
         return null;
     }
 
+    Set<Payment> fetchLatestPayments(int limit) throws TebexException {
+        String path = "/payments" + (limit == -1 ? "" : "?limit=" + limit);
+        return shared(path, () -> get(path, Endpoint.PAYMENTS, decoder::parsePayments));
+    }
+
     /**
      * Gets a list of the latest payments in a {@link Payment} package way
      * @param page The page number to return
-     * @return {@link PagedResult<Payment>} containing the page payments
+     * @return {@link PagedResult<Payment>} containing the page payments in an unmodifiable list,
+     * shared with the calls made at the same time
      */
 
     public PagedResult<Payment> getPaymentsPaged(int page) {
         try {
-            JSONObject obj = jsonGet("/payments?paged=1&page=" + page);
-            checkError(obj);
+            return fetchPaymentsPaged(page);
+        } catch (TebexException e){
+            e.printStackTrace();
+        }
 
-            int totalResults = JsonUtils.safeGetInt(obj, "total");
-            int resultsPerPage = JsonUtils.safeGetInt(obj, "per_page");
-            int currentPage = JsonUtils.safeGetInt(obj, "current_page");
-            int totalPages = JsonUtils.safeGetInt(obj, "last_page");
-            int indexFrom = JsonUtils.safeGetInt(obj, "from");
-            int indexTo = JsonUtils.safeGetInt(obj, "to");
+        return null;
+    }
 
-            JSONArray payments = JsonUtils.safeGetArray(obj, "data");
-            List<Payment> paymentList = new ArrayList<>();
+    PagedResult<Payment> fetchPaymentsPaged(int page) throws TebexException {
+        String path = "/payments?paged=1&page=" + page;
+        return shared(path, () -> get(path, Endpoint.PAYMENTS_PAGED, decoder::parsePaymentPage));
+    }
 
-            for (int i = 0; i<(payments==null ? 0 : payments.length()); i++){
-                paymentList.add(parsePayment(JsonUtils.safeGetObject(payments, i)));
-            }
+    /**
+     * Gets a page of payments like {@link #getPaymentsPaged(int)}, but as {@link LazyPayment}s that only
+     * decode a field the first time it is read. Cheaper when only a few fields of each payment are used
+     * @param page The page number to return
+     * @return {@link PagedResult<Payment>} containing the page payments
+     */
 
-            return new PagedResult<>(paymentList, resultsPerPage, currentPage, totalResults, totalPages, indexFrom, indexTo);
+    public PagedResult<Payment> getPaymentsPagedLazy(int page) {
+        try {
+            return fetchPaymentsPagedLazy(page);
         } catch (TebexException e){
             e.printStackTrace();
         }
@@ -290,21 +471,21 @@ public class TebexApi {
         return null;
     }
 
-    public GiftCard getGiftCard(int giftCardId) throws TebexException {
-        JSONObject obj = jsonGet("/gift-cards/" + giftCardId);
-        checkError(obj);
-
-        JSONObject data = JsonUtils.safeGetObject(obj, "data");
-
-        if (data == null) {
-            return null;
-        }
+    PagedResult<Payment> fetchPaymentsPagedLazy(int page) throws TebexException {
+        String path = "/payments?paged=1&page=" + page;
+        return shared("lazy " + path, () -> get(path, Endpoint.PAYMENTS_PAGED, decoder::parseLazyPaymentPage));
+    }
 
-        JSONObject balance = JsonUtils.safeGetObject(data, "balance");
-        double starting = Double.parseDouble(JsonUtils.safeGetString(balance, "starting"));
-        double remaining = Double.parseDouble(JsonUtils.safeGetString(balance, "remaining"));
+    /**
+     * Gets a gift card and its remaining balance. With a {@link ResponseCache}, balances are
+     * kept for the {@link CachedEndpoint#GIFT_CARD} policy, 10 seconds by default
+     * @param giftCardId The id of the gift card
+     * @return the {@link GiftCard} or null if Tebex didn't return one
+     */
 
-        return new GiftCard(giftCardId, JsonUtils.safeGetString(data, "code"), starting, remaining);
+    public GiftCard getGiftCard(int giftCardId) throws TebexException {
+        String path = "/gift-cards/" + giftCardId;
+        return shared(path, () -> cachedGet(path, Endpoint.GIFT_CARD, CachedEndpoint.GIFT_CARD, reader -> decoder.parseGiftCard(reader, giftCardId)));
     }
 
     @NotNull
@@ -312,6 +493,15 @@ public class TebexApi {
         return createGiftCard(amount, null);
     }
 
+    /**
+     * Creates a gift card. When gift cards are cached (see {@link #setResponseCache(ResponseCache)}),
+     * anything cached for the id of the new card is invalidated
+     * @param amount The starting balance of the card
+     * @param note A note shown on the dashboard, or null
+     * @return the created {@link GiftCard}
+     * @see TebexAsyncApi#createGiftCards(double[], String, int, java.util.function.Consumer) To create many cards at once
+     */
+
     @NotNull
     public GiftCard createGiftCard(double amount, @Nullable String note) throws TebexException {
         JSONObject req = new JSONObject();
@@ -320,95 +510,75 @@ public class TebexApi {
             req.put("note", note);
         }
 
-        JSONObject obj = jsonPost("/gift-cards", req);
-        checkError(obj);
-
-        JSONObject main = JsonUtils.safeGetObject(obj, "data");
-        return new GiftCard(JsonUtils.safeGetInt(main, "id"), JsonUtils.safeGetString(main, "code"), amount, amount);
-    }
-
-    private Payment parsePayment(JSONObject obj){
-        int id = JsonUtils.safeGetInt(obj, "id");
-        double amount = Double.parseDouble(JsonUtils.safeGetString(obj, "amount"));
-
-        Date date = parseDate(JsonUtils.safeGetString(obj, "date"));
-        JSONObject currencyObj = JsonUtils.safeGetObject(obj, "currency");
-        String currency = JsonUtils.safeGetString(currencyObj, "iso_4217");
-        String currencySymbol = JsonUtils.safeGetString(currencyObj, "symbol");
-
-        JSONObject playerObj = JsonUtils.safeGetObject(obj, "player");
-        int playerId = JsonUtils.safeGetInt(playerObj, "id");
-        String playerName = JsonUtils.safeGetString(playerObj, "name");
-
-        String uuidString = JsonUtils.safeGetString(playerObj, "uuid");
-        UUID uuid = parseUuid(uuidString);
+        GiftCard created = post("/gift-cards", Endpoint.CREATE_GIFT_CARD, req, reader -> decoder.parseGiftCard(reader, 0));
+        if (created == null) {
+            throw new TebexException("Tebex didn't return the created gift card");
+        }
 
-        String statusString = JsonUtils.safeGetString(obj, "status");
-        Payment.Status status = EnumUtils.getEnum(Payment.Status.class, statusString.toUpperCase(), Status.UNKNOWN);
+        GiftCard giftCard = new GiftCard(created.getId(), created.getCode(), amount, amount);
 
-        JSONArray packages = JsonUtils.safeGetArray(obj, "packages");
+        // Drop whatever was cached for the id, e.g. a lookup made before the card existed. The card isn't
+        // stored instead, bulk creations would push every other entry out of the cache
+        ResponseCache cache = responseCache;
+        if (cache != null) {
+            cache.invalidate("/gift-cards/" + giftCard.getId());
+        }
 
-        return new Payment(id, amount, date, currency, currencySymbol, playerId, playerName, uuid, status, getBoughtPackages(packages));
+        return giftCard;
     }
 
-    private UUID parseUuid(String text) {
-        if (text == null || text.isEmpty()) {
-            return null;
-        }
-
-        text = text.replaceFirst("([0-9a-fA-F]{8})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]+)", "$1-$2-$3-$4-$5");
+    /**
+     * Changes if the petitions should be made with http or https
+     * @param secure If you want to use https
+     * @deprecated Set it once with {@link TebexConfig.Builder#secure(boolean)} instead
+     */
 
-        return UUID.fromString(text);
+    @Deprecated
+    public void setSecure(boolean secure){
+        config = config.toBuilder().secure(secure).build();
     }
 
-    private Map<Integer, String> getBoughtPackages(JSONArray array){
-        Map<Integer, String> map = new HashMap<>();
-        for (int i = 0; i<(array==null ? 0 : array.length()); i++){
-            JSONObject obj = JsonUtils.safeGetObject(array, i);
-            map.put(JsonUtils.safeGetInt(obj, "id"), JsonUtils.safeGetString(obj, "name"));
-        }
-
-        return map;
+    public static <T> T filterAndGet(Stream<T> stream, Predicate<T> predicate){
+        return stream.filter(predicate).findFirst().orElse(null);
     }
 
-    private void checkError(JSONObject obj) throws TebexException {
-        if (obj == null){
-            throw new TebexException("Couldn't connect to the Tebex API");
-        }
-        if (JsonUtils.safeGetInt(obj, "error_code", false)!=null){
-            throw new TebexException(JsonUtils.safeGetString(obj, "error_message"));
-        }
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+        T handle(TebexResponse response, TebexListener listener) throws IOException, TebexException;
     }
 
-    /**
-     * Utility method to parse Tebex's date objects
-     * @param string The string to parse
-     * @return A Date with the parsed string data or a "0" Date
-     */
+    @FunctionalInterface
+    private interface Fetch<T> {
+        T fetch() throws TebexException;
+    }
 
-    private Date parseDate(String string) {
-        try {
-            return DATE_FORMAT.parse(string);
-        } catch (ParseException e) {
-            return new Date(0);
-        }
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(JsonStreamReader reader) throws IOException, TebexException;
     }
 
     /**
-     * Changes if the petitions should be made with http or https
-     * @param secure If you want to use https
+     * The endpoints called by this API, with their name in the {@link TebexListener} events and their priority
      */
-
-    public void setSecure(boolean secure){
-        url = "http" + (secure ? "s" : "") + "://plugin.tebex.io";
-    }
-
-    public static <T> T filterAndGet(Stream<T> stream, Predicate<T> predicate){
-        try {
-            return stream.filter(predicate).findFirst().get();
-        } catch (NoSuchElementException e){
-            return null;
+    private enum Endpoint {
+
+        INFORMATION("GET /information", RequestPriority.INTERACTIVE),
+        LISTING("GET /listing", RequestPriority.BACKGROUND),
+        QUEUE("GET /queue", RequestPriority.DELIVERY),
+        OFFLINE_COMMANDS("GET /queue/offline-commands", RequestPriority.DELIVERY),
+        ONLINE_COMMANDS("GET /queue/online-commands/{id}", RequestPriority.DELIVERY),
+        DELETE_COMMANDS("DELETE /queue", RequestPriority.DELIVERY),
+        PAYMENTS("GET /payments", RequestPriority.BACKGROUND),
+        PAYMENTS_PAGED("GET /payments?paged", RequestPriority.BACKGROUND),
+        GIFT_CARD("GET /gift-cards/{id}", RequestPriority.INTERACTIVE),
+        CREATE_GIFT_CARD("POST /gift-cards", RequestPriority.INTERACTIVE);
+
+        private final String label;
+        private final RequestPriority priority;
+
+        Endpoint(String label, RequestPriority priority) {
+            this.label = label;
+            this.priority = priority;
         }
     }
-
 }
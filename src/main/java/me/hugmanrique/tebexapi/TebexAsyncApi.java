@@ -0,0 +1,423 @@
+package me.hugmanrique.tebexapi;
+
+import me.hugmanrique.tebexapi.data.*;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.paging.PrefetchingPageIterator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking counterpart of {@link TebexApi}. Every method returns immediately with a
+ * {@link CompletableFuture} and the request runs on the {@link Executor} given on creation,
+ * so the calling thread (e.g. the server main thread) is never held while Tebex responds.
+ *
+ * The requests themselves are still blocking: the {@link me.hugmanrique.tebexapi.http.TebexTransport}
+ * is built on {@link java.net.HttpURLConnection} to keep Java 8 support, so each request in flight
+ * holds an executor thread until its response has been read. Size the executor for the number of
+ * concurrent requests you expect.
+ *
+ * Unlike the blocking methods of {@link TebexApi}, failures are not printed and turned into
+ * {@code null}: the returned future completes exceptionally with the {@link TebexException}.
+ */
+public class TebexAsyncApi {
+    private final TebexApi api;
+    private final Executor executor;
+
+    /**
+     * Creates a new instance of {@link TebexAsyncApi}
+     * @param api The {@link TebexApi} that performs the requests
+     * @param executor The {@link Executor} the requests are run on. Its size bounds the number of requests in flight
+     */
+
+    public TebexAsyncApi(@NotNull TebexApi api, @NotNull Executor executor) {
+        this.api = Objects.requireNonNull(api, "api");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /**
+     * Creates a new instance of {@link TebexAsyncApi} with its own {@link TebexApi}
+     * @param secret The Tebex's secret key (The server secret key)
+     * @param executor The {@link Executor} the requests are run on
+     * @throws TebexException If the Secret key is not valid
+     */
+
+    public TebexAsyncApi(String secret, @NotNull Executor executor) throws TebexException {
+        this(new TebexApi(secret), executor);
+    }
+
+    /**
+     * @return the blocking {@link TebexApi} backing this instance
+     */
+    public TebexApi getApi() {
+        return api;
+    }
+
+    /**
+     * @return the {@link Executor} the requests are run on
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @see TebexApi#getInformation()
+     */
+    public CompletableFuture<Information> getInformation() {
+        return submit(api::fetchInformation);
+    }
+
+    /**
+     * @see TebexApi#getListing()
+     */
+    public CompletableFuture<Set<Category>> getListing() {
+        return submit(api::fetchListing);
+    }
+
+    /**
+     * @see TebexApi#getIndexedListing()
+     */
+    public CompletableFuture<Listing> getIndexedListing() {
+        return submit(api::fetchIndexedListing);
+    }
+
+    /**
+     * @see TebexApi#getQueue(int)
+     */
+    public CompletableFuture<PlayerQueue> getQueue(int page) {
+        return submit(() -> api.fetchQueue(page));
+    }
+
+    /**
+     * @see TebexApi#getOfflineCommands()
+     */
+    public CompletableFuture<Set<OfflineCommand>> getOfflineCommands() {
+        return submit(api::fetchOfflineCommands);
+    }
+
+    /**
+     * @see TebexApi#getOnlineCommands(int)
+     */
+    public CompletableFuture<List<OnlineCommand>> getOnlineCommands(int playerId) {
+        return submit(() -> api.fetchOnlineCommands(playerId));
+    }
+
+    /**
+     * Fetches the online commands of many players, with at most {@code parallelism} requests in flight.
+     * Once a request fails no more are sent and the future completes exceptionally with its error
+     * @param players The players to fetch the commands of, e.g. {@link PlayerQueue#getPlayers()}
+     * @param parallelism The maximum number of requests in flight
+     * @return a future of the commands of each player, in the order the players were given
+     */
+    public CompletableFuture<Map<QueuedPlayer, List<OnlineCommand>>> getOnlineCommands(@NotNull Collection<QueuedPlayer> players, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
+        OnlineCommandBatch batch = new OnlineCommandBatch(players.toArray(new QueuedPlayer[0]));
+        if (batch.due.length == 0) {
+            batch.result.complete(Collections.emptyMap());
+            return batch.result;
+        }
+
+        for (int i = Math.min(parallelism, batch.due.length); i > 0; i--) {
+            batch.fetchNext();
+        }
+
+        return batch.result;
+    }
+
+    /**
+     * @see TebexApi#deleteCommands(Collection)
+     */
+    public CompletableFuture<Void> deleteCommands(@NotNull Collection<Integer> commandIds) {
+        List<Integer> ids = new ArrayList<>(commandIds);
+
+        return submit(() -> {
+            api.deleteCommands(ids);
+            return null;
+        });
+    }
+
+    /**
+     * @see TebexApi#getLatestPayments(int)
+     */
+    public CompletableFuture<Set<Payment>> getLatestPayments(int limit) {
+        return submit(() -> api.fetchLatestPayments(limit));
+    }
+
+    /**
+     * @see TebexApi#getPaymentsPaged(int)
+     */
+    public CompletableFuture<PagedResult<Payment>> getPaymentsPaged(int page) {
+        return submit(() -> api.fetchPaymentsPaged(page));
+    }
+
+    /**
+     * @see TebexApi#getPaymentsPagedLazy(int)
+     */
+    public CompletableFuture<PagedResult<Payment>> getPaymentsPagedLazy(int page) {
+        return submit(() -> api.fetchPaymentsPagedLazy(page));
+    }
+
+    /**
+     * Lazily iterates over every payment of the store, newest first, while the next
+     * pages are downloaded in the background. Close the stream to cancel the pending pages
+     * @param prefetch The maximum number of pages requested at once
+     * @return a {@link Stream} over all the payments
+     * @see PrefetchingPageIterator
+     */
+    public Stream<Payment> streamPayments(int prefetch) {
+        return new PrefetchingPageIterator<>(this::getPaymentsPaged, 1, prefetch).stream();
+    }
+
+    /**
+     * @see TebexApi#getGiftCard(int)
+     */
+    public CompletableFuture<GiftCard> getGiftCard(int giftCardId) {
+        return submit(() -> api.getGiftCard(giftCardId));
+    }
+
+    /**
+     * @see TebexApi#createGiftCard(double)
+     */
+    public CompletableFuture<GiftCard> createGiftCard(double amount) {
+        return createGiftCard(amount, null);
+    }
+
+    /**
+     * @see TebexApi#createGiftCard(double, String)
+     */
+    public CompletableFuture<GiftCard> createGiftCard(double amount, @Nullable String note) {
+        return submit(() -> api.createGiftCard(amount, note));
+    }
+
+    /**
+     * Creates {@code count} gift cards of the same amount, see {@link #createGiftCards(double[], String, int, Consumer)}
+     */
+    public CompletableFuture<List<GiftCardResult>> createGiftCards(int count, double amount, @Nullable String note, int parallelism,
+                                                                   @Nullable Consumer<GiftCardResult> listener) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be negative");
+        }
+
+        double[] amounts = new double[count];
+        Arrays.fill(amounts, amount);
+
+        return createGiftCards(amounts, note, parallelism, listener);
+    }
+
+    /**
+     * Creates many gift cards, with at most {@code parallelism} requests in flight. Unlike
+     * {@link #getOnlineCommands(Collection, int)}, a card that can't be created doesn't stop the
+     * others: its {@link GiftCardResult} holds the error instead. Cancelling the returned future
+     * stops sending new requests
+     * @param amounts The balance of each card
+     * @param note The note of every card, or null
+     * @param parallelism The maximum number of requests in flight
+     * @param listener Told about each card as soon as its request completes, on the thread that completed it. May be null
+     * @return a future of the result of every card, in the order the amounts were given
+     */
+    public CompletableFuture<List<GiftCardResult>> createGiftCards(@NotNull double[] amounts, @Nullable String note, int parallelism,
+                                                                   @Nullable Consumer<GiftCardResult> listener) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
+        GiftCardBatch batch = new GiftCardBatch(amounts.clone(), note, listener);
+        if (amounts.length == 0) {
+            batch.result.complete(Collections.emptyList());
+            return batch.result;
+        }
+
+        for (int i = Math.min(parallelism, amounts.length); i > 0; i--) {
+            batch.createNext();
+        }
+
+        return batch.result;
+    }
+
+    private <T> CompletableFuture<T> submit(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // Cancelled while waiting for a thread
+                    return;
+                }
+
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * The state of a {@link #getOnlineCommands(Collection, int)} call. Each finished request sends
+     * the next one, so the number of requests in flight stays the same
+     */
+    private final class OnlineCommandBatch {
+        private final QueuedPlayer[] due;
+
+        private final AtomicReferenceArray<List<OnlineCommand>> commands;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Map<QueuedPlayer, List<OnlineCommand>>> result = new CompletableFuture<>();
+
+        OnlineCommandBatch(QueuedPlayer[] due) {
+            this.due = due;
+            this.commands = new AtomicReferenceArray<>(due.length);
+            this.remaining = new AtomicInteger(due.length);
+        }
+
+        void fetchNext() {
+            while (true) {
+                int index = next.getAndIncrement();
+                if (index >= due.length || result.isDone()) {
+                    return;
+                }
+
+                CompletableFuture<List<OnlineCommand>> fetched = getOnlineCommands(due[index].getId());
+
+                // Requests that finish right away, e.g. on a direct executor or rejected by it, are
+                // handled in this loop instead of recursing once per player
+                if (!fetched.isDone()) {
+                    fetched.whenComplete((playerCommands, error) -> {
+                        complete(index, playerCommands, error);
+                        fetchNext();
+                    });
+                    return;
+                }
+
+                List<OnlineCommand> playerCommands = null;
+                Throwable error = null;
+                try {
+                    playerCommands = fetched.join();
+                } catch (CompletionException | CancellationException e) {
+                    error = e;
+                }
+
+                complete(index, playerCommands, error);
+            }
+        }
+
+        private void complete(int index, List<OnlineCommand> playerCommands, Throwable error) {
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                return;
+            }
+
+            commands.set(index, playerCommands);
+
+            if (remaining.decrementAndGet() == 0) {
+                Map<QueuedPlayer, List<OnlineCommand>> grouped = new LinkedHashMap<>();
+                for (int i = 0; i < due.length; i++) {
+                    grouped.put(due[i], commands.get(i));
+                }
+                result.complete(Collections.unmodifiableMap(grouped));
+            }
+        }
+    }
+
+    /**
+     * The state of a {@link #createGiftCards(double[], String, int, Consumer)} call. Each finished
+     * request sends the next one, so the number of requests in flight stays the same
+     */
+    private final class GiftCardBatch {
+        private final double[] amounts;
+        private final String note;
+        private final Consumer<GiftCardResult> listener;
+
+        private final AtomicReferenceArray<GiftCardResult> results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<GiftCardResult>> result = new CompletableFuture<>();
+
+        GiftCardBatch(double[] amounts, String note, Consumer<GiftCardResult> listener) {
+            this.amounts = amounts;
+            this.note = note;
+            this.listener = listener;
+            this.results = new AtomicReferenceArray<>(amounts.length);
+            this.remaining = new AtomicInteger(amounts.length);
+        }
+
+        void createNext() {
+            while (true) {
+                int index = next.getAndIncrement();
+                if (index >= amounts.length || result.isDone()) {
+                    return;
+                }
+
+                CompletableFuture<GiftCard> created = createGiftCard(amounts[index], note);
+
+                // Requests that fail right away, e.g. rejected by the executor, are handled in this
+                // loop instead of recursing once per card
+                if (!created.isDone()) {
+                    created.whenComplete((giftCard, error) -> {
+                        complete(index, giftCard, error);
+                        createNext();
+                    });
+                    return;
+                }
+
+                GiftCard giftCard = null;
+                Throwable error = null;
+                try {
+                    giftCard = created.join();
+                } catch (CompletionException | CancellationException e) {
+                    error = e;
+                }
+
+                complete(index, giftCard, error);
+            }
+        }
+
+        private void complete(int index, GiftCard giftCard, Throwable error) {
+            if (error instanceof CompletionException && error.getCause() != null) {
+                error = error.getCause();
+            }
+
+            GiftCardResult cardResult = new GiftCardResult(index, amounts[index], error == null ? giftCard : null, error);
+            results.set(index, cardResult);
+
+            if (listener != null) {
+                try {
+                    listener.accept(cardResult);
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                }
+            }
+
+            if (remaining.decrementAndGet() == 0) {
+                List<GiftCardResult> all = new ArrayList<>(amounts.length);
+                for (int i = 0; i < amounts.length; i++) {
+                    all.add(results.get(i));
+                }
+                result.complete(Collections.unmodifiableList(all));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T call() throws TebexException;
+    }
+}
@@ -0,0 +1,163 @@
+package me.hugmanrique.tebexapi;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable settings of a single {@link TebexApi}: the store secret, the base URL and the timeouts.
+ *
+ * Everything that can be shared between stores (the {@link me.hugmanrique.tebexapi.http.TebexTransport},
+ * its connections and rate limiter, the executors) is passed separately, so one JVM can run a
+ * client per store on top of the same infrastructure.
+ */
+public final class TebexConfig {
+    public static final String DEFAULT_BASE_URL = "https://plugin.tebex.io";
+
+    /**
+     * Timeout value that leaves the timeout up to the transport
+     */
+    public static final int TRANSPORT_DEFAULT = -1;
+
+    private static final int SECRET_LENGTH = 40;
+
+    private final String secret;
+    private final String baseUrl;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    private TebexConfig(Builder builder) {
+        this.secret = builder.secret;
+        this.baseUrl = builder.baseUrl;
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+    }
+
+    /**
+     * Creates a builder for the store with the given secret
+     * @param secret The Tebex's secret key (The server secret key)
+     */
+    public static Builder builder(@NotNull String secret) {
+        return new Builder(secret);
+    }
+
+    /**
+     * @return a builder with the values of this configuration
+     */
+    public Builder toBuilder() {
+        return new Builder(secret)
+                .baseUrl(baseUrl)
+                .connectTimeout(connectTimeoutMillis)
+                .readTimeout(readTimeoutMillis);
+    }
+
+    static boolean isValidSecret(String secret) {
+        return secret != null && secret.length() == SECRET_LENGTH;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * @return the URL every path is appended to, without a trailing slash
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return the connect timeout in milliseconds or {@link #TRANSPORT_DEFAULT}
+     */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * @return the read timeout in milliseconds or {@link #TRANSPORT_DEFAULT}
+     */
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        // Never print the secret
+        return "TebexConfig{" +
+                "baseUrl='" + baseUrl + '\'' +
+                ", connectTimeoutMillis=" + connectTimeoutMillis +
+                ", readTimeoutMillis=" + readTimeoutMillis +
+                '}';
+    }
+
+    public static final class Builder {
+        private final String secret;
+        private String baseUrl = DEFAULT_BASE_URL;
+        private int connectTimeoutMillis = TRANSPORT_DEFAULT;
+        private int readTimeoutMillis = TRANSPORT_DEFAULT;
+
+        private Builder(String secret) {
+            if (!isValidSecret(secret)) {
+                throw new IllegalArgumentException("The secret key is not valid");
+            }
+
+            this.secret = secret;
+        }
+
+        /**
+         * Sets the URL every path is appended to, {@value #DEFAULT_BASE_URL} by default
+         */
+        public Builder baseUrl(@NotNull String baseUrl) {
+            String url = Objects.requireNonNull(baseUrl, "baseUrl").trim();
+            if (!url.startsWith("http://") && !url.startsWith("https://")) {
+                throw new IllegalArgumentException("The base URL must be an http or https URL");
+            }
+
+            while (url.endsWith("/")) {
+                url = url.substring(0, url.length() - 1);
+            }
+
+            this.baseUrl = url;
+            return this;
+        }
+
+        /**
+         * Sets whether the default host is reached with https, which is the default
+         */
+        public Builder secure(boolean secure) {
+            String host = baseUrl.substring(baseUrl.indexOf("://") + 3);
+            this.baseUrl = (secure ? "https://" : "http://") + host;
+            return this;
+        }
+
+        /**
+         * Sets the connect and read timeouts of the requests of this store, overriding the ones of the transport
+         */
+        public Builder timeouts(long connect, long read, @NotNull TimeUnit unit) {
+            return connectTimeout(millis(connect, unit)).readTimeout(millis(read, unit));
+        }
+
+        private Builder connectTimeout(int millis) {
+            this.connectTimeoutMillis = millis;
+            return this;
+        }
+
+        private Builder readTimeout(int millis) {
+            this.readTimeoutMillis = millis;
+            return this;
+        }
+
+        private static int millis(long duration, TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Timeouts cannot be negative");
+            }
+
+            return (int) Math.min(Integer.MAX_VALUE, unit.toMillis(duration));
+        }
+
+        public TebexConfig build() {
+            return new TebexConfig(this);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package me.hugmanrique.tebexapi.analytics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The keys a {@link RevenueAggregator} groups payments by: any combination of the package,
+ * the currency, the status and a time bucket. With no key at all every payment falls in a single group.
+ */
+public final class Grouping {
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final boolean byPackage;
+    private final boolean byCurrency;
+    private final boolean byStatus;
+    private final long bucketMillis;
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long fixedOffsetMillis;
+
+    private Grouping(Builder builder) {
+        this.byPackage = builder.byPackage;
+        this.byCurrency = builder.byCurrency;
+        this.byStatus = builder.byStatus;
+        this.bucketMillis = builder.bucketMillis;
+        this.zone = builder.zone;
+        this.rules = zone == null ? null : zone.getRules();
+        this.fixedOffsetMillis = rules != null && rules.isFixedOffset()
+                ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L : 0;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isByPackage() {
+        return byPackage;
+    }
+
+    public boolean isByCurrency() {
+        return byCurrency;
+    }
+
+    public boolean isByStatus() {
+        return byStatus;
+    }
+
+    public boolean isByTime() {
+        return bucketMillis > 0 || zone != null;
+    }
+
+    /**
+     * @return the time bucket of a timestamp, buckets being numbered consecutively
+     */
+    long bucket(long epochMillis) {
+        if (zone == null) {
+            return Math.floorDiv(epochMillis, bucketMillis);
+        }
+
+        long offset = rules.isFixedOffset() ? fixedOffsetMillis
+                : rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+        return Math.floorDiv(epochMillis + offset, DAY_MILLIS);
+    }
+
+    /**
+     * @return the first millisecond of a time bucket
+     */
+    long bucketStart(long bucket) {
+        if (zone == null) {
+            return bucket * bucketMillis;
+        }
+
+        return LocalDate.ofEpochDay(bucket).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    public static final class Builder {
+        private boolean byPackage;
+        private boolean byCurrency;
+        private boolean byStatus;
+        private long bucketMillis;
+        private ZoneId zone;
+
+        private Builder() {
+        }
+
+        /**
+         * Groups by the bought package. A payment with several packages counts once in each of
+         * them, with its amount split evenly, so the package totals add up to the payment totals
+         */
+        public Builder byPackage() {
+            this.byPackage = true;
+            return this;
+        }
+
+        public Builder byCurrency() {
+            this.byCurrency = true;
+            return this;
+        }
+
+        public Builder byStatus() {
+            this.byStatus = true;
+            return this;
+        }
+
+        /**
+         * Groups by calendar day in a time zone
+         */
+        public Builder byDay(@NotNull ZoneId zone) {
+            this.zone = Objects.requireNonNull(zone, "zone");
+            this.bucketMillis = 0;
+            return this;
+        }
+
+        /**
+         * Groups by fixed-width time buckets counted from the epoch in UTC, e.g. hours
+         */
+        public Builder byTime(long width, @NotNull TimeUnit unit) {
+            long millis = unit.toMillis(width);
+            if (millis < 1) {
+                throw new IllegalArgumentException("The bucket width must be at least a millisecond");
+            }
+
+            this.bucketMillis = millis;
+            this.zone = null;
+            return this;
+        }
+
+        public Grouping build() {
+            return new Grouping(this);
+        }
+    }
+}
@@ -0,0 +1,602 @@
+package me.hugmanrique.tebexapi.analytics;
+
+import me.hugmanrique.tebexapi.TebexAsyncApi;
+import me.hugmanrique.tebexapi.data.PackageMap;
+import me.hugmanrique.tebexapi.data.PagedResult;
+import me.hugmanrique.tebexapi.data.Payment;
+import me.hugmanrique.tebexapi.exception.UncheckedTebexException;
+import me.hugmanrique.tebexapi.utils.TebexDates;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * An immutable, column oriented copy of many {@link Payment Payments}.
+ *
+ * Every field is stored in its own primitive array indexed by row: ids, timestamps, amounts,
+ * player ids and status ordinals directly, and currencies, player names and package names as
+ * codes into a dictionary of their distinct values. The packages of each payment are a slice
+ * of one shared package id array, starting at {@code packageOffsets[row]} (CSR layout).
+ * A row takes ~60 bytes instead of the several hundred of a {@link Payment} with its
+ * {@link Date}, {@link String Strings} and {@link Map}, and scanning a column reads memory
+ * sequentially without allocating.
+ *
+ * Rows are sorted by ascending payment id, 0 being the oldest payment, and each id is stored once.
+ * Safe to use from many threads.
+ */
+public final class PaymentColumns {
+    private static final Payment.Status[] STATUSES = Payment.Status.values();
+
+    private final int size;
+    private final int[] ids;
+    private final long[] epochMillis;
+    private final double[] amounts;
+    private final int[] playerIds;
+    private final byte[] statuses;
+    private final int[] currencies;
+    private final int[] playerNames;
+    private final long[] uuidMost;
+    private final long[] uuidLeast;
+    private final int[] packageOffsets;
+    private final int[] packageIds;
+    private final int[] packageNames;
+
+    private final String[] currencyDictionary;
+    private final String[] symbolDictionary;
+    private final String[] playerNameDictionary;
+    private final String[] packageNameDictionary;
+
+    private PaymentColumns(Builder builder, int[] order) {
+        this.size = order.length;
+        this.ids = new int[size];
+        this.epochMillis = new long[size];
+        this.amounts = new double[size];
+        this.playerIds = new int[size];
+        this.statuses = new byte[size];
+        this.currencies = new int[size];
+        this.playerNames = new int[size];
+        this.uuidMost = new long[size];
+        this.uuidLeast = new long[size];
+        this.packageOffsets = new int[size + 1];
+
+        int packageCount = 0;
+        for (int row : order) {
+            packageCount += builder.packageOffsets[row + 1] - builder.packageOffsets[row];
+        }
+
+        this.packageIds = new int[packageCount];
+        this.packageNames = new int[packageCount];
+
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            ids[i] = builder.ids[row];
+            epochMillis[i] = builder.epochMillis[row];
+            amounts[i] = builder.amounts[row];
+            playerIds[i] = builder.playerIds[row];
+            statuses[i] = builder.statuses[row];
+            currencies[i] = builder.currencies[row];
+            playerNames[i] = builder.playerNames[row];
+            uuidMost[i] = builder.uuidMost[row];
+            uuidLeast[i] = builder.uuidLeast[row];
+
+            int from = builder.packageOffsets[row];
+            int length = builder.packageOffsets[row + 1] - from;
+            System.arraycopy(builder.packageIds, from, packageIds, offset, length);
+            System.arraycopy(builder.packageNames, from, packageNames, offset, length);
+
+            packageOffsets[i] = offset;
+            offset += length;
+        }
+        packageOffsets[size] = offset;
+
+        this.currencyDictionary = builder.currencyDictionary.values();
+        this.symbolDictionary = builder.symbolDictionary.toArray(new String[0]);
+        this.playerNameDictionary = builder.playerNameDictionary.values();
+        this.packageNameDictionary = builder.packageNameDictionary.values();
+    }
+
+    public static Builder builder() {
+        return new Builder(1024);
+    }
+
+    /**
+     * @param expectedSize The number of payments that will be added, to size the columns once
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public static PaymentColumns of(@NotNull Iterable<? extends Payment> payments) {
+        return builder().addAll(payments).build();
+    }
+
+    /**
+     * Downloads every payment of the store with {@link TebexAsyncApi#streamPayments(int)}
+     * @param api The {@link TebexAsyncApi} to download the pages with
+     * @param prefetch The maximum number of pages requested at once
+     * @throws UncheckedTebexException If a page couldn't be downloaded
+     */
+    public static PaymentColumns load(@NotNull TebexAsyncApi api, int prefetch) {
+        Builder builder = builder();
+
+        try (Stream<Payment> payments = api.streamPayments(prefetch)) {
+            payments.forEach(builder::add);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the number of payments
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * @return the date of the payment in milliseconds since the epoch, or {@link TebexDates#INVALID} if it's unknown
+     */
+    public long getEpochMillis(int row) {
+        return epochMillis[row];
+    }
+
+    @Nullable
+    public Date getDate(int row) {
+        return epochMillis[row] == TebexDates.INVALID ? null : new Date(epochMillis[row]);
+    }
+
+    public double getAmount(int row) {
+        return amounts[row];
+    }
+
+    public int getPlayerId(int row) {
+        return playerIds[row];
+    }
+
+    public Payment.Status getStatus(int row) {
+        return STATUSES[statuses[row]];
+    }
+
+    /**
+     * @return the code of the currency of the payment, an index into {@link #getCurrencies()}
+     */
+    public int getCurrencyCode(int row) {
+        return currencies[row];
+    }
+
+    public String getCurrency(int row) {
+        return currencyDictionary[currencies[row]];
+    }
+
+    public String getCurrencySymbol(int row) {
+        return symbolDictionary[currencies[row]];
+    }
+
+    public String getPlayerName(int row) {
+        return playerNameDictionary[playerNames[row]];
+    }
+
+    @Nullable
+    public UUID getPlayerUuid(int row) {
+        return uuidMost[row] == 0 && uuidLeast[row] == 0 ? null : new UUID(uuidMost[row], uuidLeast[row]);
+    }
+
+    /**
+     * @return the number of packages bought in the payment
+     */
+    public int getPackageCount(int row) {
+        return packageOffsets[row + 1] - packageOffsets[row];
+    }
+
+    /**
+     * @param row The payment
+     * @param index The index of the package in the payment, lower than {@link #getPackageCount(int)}
+     * @return the id of the package
+     */
+    public int getPackageId(int row, int index) {
+        return packageIds[packageOffset(row, index)];
+    }
+
+    public String getPackageName(int row, int index) {
+        return packageNameDictionary[packageNames[packageOffset(row, index)]];
+    }
+
+    int statusOrdinal(int row) {
+        return statuses[row];
+    }
+
+    /**
+     * @return the offset in the package columns of the first package of a payment
+     */
+    int packageStart(int row) {
+        return packageOffsets[row];
+    }
+
+    int packageEnd(int row) {
+        return packageOffsets[row + 1];
+    }
+
+    int packageIdAt(int offset) {
+        return packageIds[offset];
+    }
+
+    private int packageOffset(int row, int index) {
+        if (index < 0 || index >= getPackageCount(row)) {
+            throw new IndexOutOfBoundsException("Package " + index + " of payment " + ids[row]);
+        }
+
+        return packageOffsets[row] + index;
+    }
+
+    /**
+     * @return the distinct currencies, indexed by currency code
+     */
+    public List<String> getCurrencies() {
+        return Collections.unmodifiableList(Arrays.asList(currencyDictionary));
+    }
+
+    /**
+     * @return the code of a currency, or -1 if no payment uses it
+     */
+    public int findCurrencyCode(@NotNull String currency) {
+        for (int code = 0; code < currencyDictionary.length; code++) {
+            if (currencyDictionary[code].equals(currency)) {
+                return code;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds a payment by id with a binary search
+     * @return the row of the payment or -1 if it isn't stored
+     */
+    public int indexOf(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    /**
+     * Turns a row back into a {@link Payment}
+     */
+    public Payment getPayment(int row) {
+        PackageMap.Builder packages = new PackageMap.Builder(getPackageCount(row));
+        for (int i = packageOffsets[row]; i < packageOffsets[row + 1]; i++) {
+            packages.put(packageIds[i], packageNameDictionary[packageNames[i]]);
+        }
+
+        return new Payment(ids[row], amounts[row], epochMillis[row], getCurrency(row), getCurrencySymbol(row), playerIds[row],
+                getPlayerName(row), getPlayerUuid(row), getStatus(row), packages.build());
+    }
+
+    /**
+     * Starts a query matching every payment; narrow it down with the methods of {@link Query}
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Filters the rows of the columns. Conditions are combined with AND, and the
+     * terminal methods scan the columns without allocating
+     */
+    public final class Query {
+        private int status = -1;
+        private int currency = -1;
+        private boolean unknownCurrency;
+        private long fromMillis = Long.MIN_VALUE;
+        private long toMillis = Long.MAX_VALUE;
+        private int playerId;
+        private boolean byPlayer;
+        private int packageId;
+        private boolean byPackage;
+
+        private Query() {
+        }
+
+        public Query status(@NotNull Payment.Status status) {
+            this.status = status.ordinal();
+            return this;
+        }
+
+        public Query currency(@NotNull String currency) {
+            this.currency = findCurrencyCode(currency);
+            this.unknownCurrency = this.currency == -1;
+            return this;
+        }
+
+        /**
+         * Keeps the payments made from {@code fromMillis} (inclusive) to {@code toMillis} (exclusive).
+         * Payments with an unknown date ({@link TebexDates#INVALID}) fall before any real date
+         */
+        public Query between(long fromMillis, long toMillis) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            return this;
+        }
+
+        public Query player(int playerId) {
+            this.playerId = playerId;
+            this.byPlayer = true;
+            return this;
+        }
+
+        /**
+         * Keeps the payments that bought a package
+         */
+        public Query withPackage(int packageId) {
+            this.packageId = packageId;
+            this.byPackage = true;
+            return this;
+        }
+
+        /**
+         * Passes the row of every matching payment to the action, in ascending id order
+         */
+        public void forEach(@NotNull IntConsumer action) {
+            if (unknownCurrency) {
+                return;
+            }
+
+            for (int row = 0; row < size; row++) {
+                if (matches(row)) {
+                    action.accept(row);
+                }
+            }
+        }
+
+        public int count() {
+            int count = 0;
+            if (unknownCurrency) {
+                return count;
+            }
+
+            for (int row = 0; row < size; row++) {
+                if (matches(row)) {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * @return the total amount of the matching payments. Only meaningful together with {@link #currency(String)}
+         */
+        public double sumAmount() {
+            double sum = 0;
+            if (unknownCurrency) {
+                return sum;
+            }
+
+            for (int row = 0; row < size; row++) {
+                if (matches(row)) {
+                    sum += amounts[row];
+                }
+            }
+
+            return sum;
+        }
+
+        /**
+         * @return the rows of the matching payments, in ascending id order
+         */
+        public int[] rows() {
+            int[] rows = new int[count()];
+            int next = 0;
+
+            if (!unknownCurrency) {
+                for (int row = 0; row < size && next < rows.length; row++) {
+                    if (matches(row)) {
+                        rows[next++] = row;
+                    }
+                }
+            }
+
+            return rows;
+        }
+
+        PaymentColumns columns() {
+            return PaymentColumns.this;
+        }
+
+        boolean matches(int row) {
+            if (unknownCurrency) {
+                return false;
+            }
+            if (status != -1 && statuses[row] != status) {
+                return false;
+            }
+            if (currency != -1 && currencies[row] != currency) {
+                return false;
+            }
+
+            long time = epochMillis[row];
+            if (time < fromMillis || time >= toMillis) {
+                return false;
+            }
+            if (byPlayer && playerIds[row] != playerId) {
+                return false;
+            }
+
+            return !byPackage || hasPackage(row);
+        }
+
+        private boolean hasPackage(int row) {
+            for (int i = packageOffsets[row]; i < packageOffsets[row + 1]; i++) {
+                if (packageIds[i] == packageId) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Collects payments into growing columns. Not thread-safe
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private long[] epochMillis;
+        private double[] amounts;
+        private int[] playerIds;
+        private byte[] statuses;
+        private int[] currencies;
+        private int[] playerNames;
+        private long[] uuidMost;
+        private long[] uuidLeast;
+        private int[] packageOffsets;
+        private int packageCount;
+        private int[] packageIds;
+        private int[] packageNames;
+
+        private final Dictionary currencyDictionary = new Dictionary();
+        private final List<String> symbolDictionary = new ArrayList<>();
+        private final Dictionary playerNameDictionary = new Dictionary();
+        private final Dictionary packageNameDictionary = new Dictionary();
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+
+            this.ids = new int[capacity];
+            this.epochMillis = new long[capacity];
+            this.amounts = new double[capacity];
+            this.playerIds = new int[capacity];
+            this.statuses = new byte[capacity];
+            this.currencies = new int[capacity];
+            this.playerNames = new int[capacity];
+            this.uuidMost = new long[capacity];
+            this.uuidLeast = new long[capacity];
+            this.packageOffsets = new int[capacity + 1];
+            this.packageIds = new int[capacity];
+            this.packageNames = new int[capacity];
+        }
+
+        public Builder add(@NotNull Payment payment) {
+            if (size == ids.length) {
+                grow();
+            }
+
+            UUID uuid = payment.getPlayerUuid();
+            Payment.Status status = payment.getStatus();
+
+            ids[size] = payment.getId();
+            epochMillis[size] = payment.getEpochMillis();
+            amounts[size] = payment.getAmount();
+            playerIds[size] = payment.getPlayerId();
+            statuses[size] = (byte) (status == null ? Payment.Status.UNKNOWN : status).ordinal();
+            currencies[size] = currencyDictionary.code(payment.getCurrency());
+            if (currencies[size] == symbolDictionary.size()) {
+                symbolDictionary.add(payment.getCurrencySymbol() == null ? "" : payment.getCurrencySymbol());
+            }
+            playerNames[size] = playerNameDictionary.code(payment.getPlayerName());
+            uuidMost[size] = uuid == null ? 0 : uuid.getMostSignificantBits();
+            uuidLeast[size] = uuid == null ? 0 : uuid.getLeastSignificantBits();
+
+            PackageMap packages = payment.getPackages();
+            for (int i = 0; i < packages.size(); i++) {
+                if (packageCount == packageIds.length) {
+                    packageIds = Arrays.copyOf(packageIds, packageCount + (packageCount >> 1));
+                    packageNames = Arrays.copyOf(packageNames, packageIds.length);
+                }
+
+                packageIds[packageCount] = packages.getId(i);
+                packageNames[packageCount] = packageNameDictionary.code(packages.getName(i));
+                packageCount++;
+            }
+
+            size++;
+            packageOffsets[size] = packageCount;
+            return this;
+        }
+
+        public Builder addAll(@NotNull Iterable<? extends Payment> payments) {
+            for (Payment payment : payments) {
+                add(payment);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the payments of a page returned by {@link me.hugmanrique.tebexapi.TebexApi#getPaymentsPaged(int)}
+         */
+        public Builder addPage(@NotNull PagedResult<Payment> page) {
+            return addAll(page.getResults());
+        }
+
+        /**
+         * Sorts the rows by id and drops the repeated ones, keeping the first one added
+         * @return the {@link PaymentColumns}
+         */
+        public PaymentColumns build() {
+            // Pack the id and the row in a long so a primitive sort orders rows by id, then by insertion
+            long[] keys = new long[size];
+            for (int row = 0; row < size; row++) {
+                keys[row] = (long) ids[row] << 32 | row;
+            }
+            Arrays.sort(keys);
+
+            int[] order = new int[size];
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                int id = (int) (keys[i] >> 32);
+                if (unique == 0 || ids[order[unique - 1]] != id) {
+                    order[unique++] = (int) keys[i];
+                }
+            }
+
+            return new PaymentColumns(this, unique == size ? order : Arrays.copyOf(order, unique));
+        }
+
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1);
+
+            ids = Arrays.copyOf(ids, capacity);
+            epochMillis = Arrays.copyOf(epochMillis, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            playerIds = Arrays.copyOf(playerIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            playerNames = Arrays.copyOf(playerNames, capacity);
+            uuidMost = Arrays.copyOf(uuidMost, capacity);
+            uuidLeast = Arrays.copyOf(uuidLeast, capacity);
+            packageOffsets = Arrays.copyOf(packageOffsets, capacity + 1);
+        }
+    }
+
+    /**
+     * Assigns consecutive codes to distinct strings, null being stored as ""
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            String key = value == null ? "" : value;
+            Integer code = codes.get(key);
+
+            if (code == null) {
+                code = values.size();
+                codes.put(key, code);
+                values.add(key);
+            }
+
+            return code;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package me.hugmanrique.tebexapi.analytics;
+
+import me.hugmanrique.tebexapi.data.Payment;
+import me.hugmanrique.tebexapi.utils.TebexDates;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts and sums payments per group (see {@link Grouping}) on a {@link ForkJoinPool}.
+ *
+ * The rows of a {@link PaymentColumns} are split in ranges that are aggregated in parallel, each
+ * into its own primitive hash table keyed by the group key packed in a {@code long}, and the
+ * partial tables are merged as the ranges join. Amounts are summed as integers in ten-thousandths,
+ * so the totals are exact and don't depend on how the work was split.
+ *
+ * Instances are stateless and can be shared.
+ */
+public class RevenueAggregator {
+    /**
+     * Amounts are summed in units of 1/UNITS
+     */
+    static final long UNITS = 10_000;
+
+    private static final Payment.Status[] STATUSES = Payment.Status.values();
+    private static final int MIN_SPLIT = 8192;
+
+    private final ForkJoinPool pool;
+
+    public RevenueAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new instance of {@link RevenueAggregator}
+     * @param pool The {@link ForkJoinPool} the aggregation runs on
+     */
+
+    public RevenueAggregator(@NotNull ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /**
+     * Aggregates payments, e.g. the ones returned by {@link me.hugmanrique.tebexapi.TebexApi#getLatestPayments(int)}
+     */
+    public RevenueReport aggregate(@NotNull Collection<? extends Payment> payments, @NotNull Grouping grouping) {
+        return aggregate(PaymentColumns.of(payments), grouping);
+    }
+
+    public RevenueReport aggregate(@NotNull PaymentColumns payments, @NotNull Grouping grouping) {
+        return aggregate(payments.query(), grouping);
+    }
+
+    /**
+     * Aggregates the payments matching a query. When grouping by time, payments without a date are left out
+     * @param query The payments to aggregate, see {@link PaymentColumns#query()}
+     * @param grouping The keys to group by
+     * @return the {@link RevenueReport}
+     */
+    public RevenueReport aggregate(@NotNull PaymentColumns.Query query, @NotNull Grouping grouping) {
+        KeyLayout layout = new KeyLayout(query.columns(), grouping);
+        int size = query.columns().size();
+        int threshold = Math.max(MIN_SPLIT, size / (pool.getParallelism() * 4));
+
+        Aggregates total = pool.invoke(new AggregateTask(query, layout, 0, size, threshold));
+        return total.toReport(layout);
+    }
+
+    /**
+     * Packs the keys of a group in a long: the time bucket, the currency code, the status and
+     * the package id, from the most to the least significant bits. Only the keys grouped by take space
+     */
+    private static final class KeyLayout {
+        final PaymentColumns columns;
+        final Grouping grouping;
+        final int packageBits;
+        final int statusBits;
+        final int currencyBits;
+        final long firstBucket;
+
+        KeyLayout(PaymentColumns columns, Grouping grouping) {
+            this.columns = columns;
+            this.grouping = grouping;
+            this.packageBits = grouping.isByPackage() ? 32 : 0;
+            this.statusBits = grouping.isByStatus() ? bitsFor(STATUSES.length) : 0;
+            this.currencyBits = grouping.isByCurrency() ? bitsFor(columns.getCurrencies().size()) : 0;
+
+            long first = 0;
+            int timeBits = 0;
+
+            if (grouping.isByTime()) {
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+
+                for (int row = 0; row < columns.size(); row++) {
+                    long millis = columns.getEpochMillis(row);
+                    if (millis != TebexDates.INVALID) {
+                        min = Math.min(min, millis);
+                        max = Math.max(max, millis);
+                    }
+                }
+
+                if (min <= max) {
+                    first = grouping.bucket(min);
+                    timeBits = bitsFor(grouping.bucket(max) - first + 1);
+                }
+            }
+
+            if (packageBits + statusBits + currencyBits + timeBits > 63) {
+                throw new IllegalArgumentException("The payments span too many time buckets, use wider ones");
+            }
+
+            this.firstBucket = first;
+        }
+
+        /**
+         * @return the key of a payment without the package id
+         */
+        long key(int row) {
+            long key = 0;
+
+            if (grouping.isByTime()) {
+                key = grouping.bucket(columns.getEpochMillis(row)) - firstBucket;
+            }
+            if (currencyBits > 0) {
+                key = key << currencyBits | columns.getCurrencyCode(row);
+            }
+            if (statusBits > 0) {
+                key = key << statusBits | columns.statusOrdinal(row);
+            }
+
+            return key << packageBits;
+        }
+
+        RevenueGroup group(long key, long count, long amountUnits) {
+            int packageId = packageBits > 0 ? (int) key : -1;
+            key >>>= packageBits;
+
+            Payment.Status status = statusBits > 0 ? STATUSES[(int) (key & mask(statusBits))] : null;
+            key >>>= statusBits;
+
+            String currency = currencyBits > 0 ? columns.getCurrencies().get((int) (key & mask(currencyBits))) : null;
+            key >>>= currencyBits;
+
+            long bucketStart = grouping.isByTime() ? grouping.bucketStart(firstBucket + key) : -1;
+            return new RevenueGroup(packageId, currency, status, bucketStart, count, amountUnits);
+        }
+
+        private static long mask(int bits) {
+            return (1L << bits) - 1;
+        }
+
+        private static int bitsFor(long values) {
+            return values <= 1 ? 1 : 64 - Long.numberOfLeadingZeros(values - 1);
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<Aggregates> {
+        private final PaymentColumns.Query query;
+        private final KeyLayout layout;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        AggregateTask(PaymentColumns.Query query, KeyLayout layout, int from, int to, int threshold) {
+            this.query = query;
+            this.layout = layout;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Aggregates compute() {
+            if (to - from <= threshold) {
+                return aggregateRange();
+            }
+
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(query, layout, from, middle, threshold);
+            left.fork();
+
+            Aggregates right = new AggregateTask(query, layout, middle, to, threshold).compute();
+            return left.join().merge(right);
+        }
+
+        private Aggregates aggregateRange() {
+            PaymentColumns columns = layout.columns;
+            boolean byTime = layout.grouping.isByTime();
+            boolean byPackage = layout.packageBits > 0;
+            Aggregates aggregates = new Aggregates(64);
+
+            for (int row = from; row < to; row++) {
+                if (!query.matches(row) || byTime && columns.getEpochMillis(row) == TebexDates.INVALID) {
+                    continue;
+                }
+
+                long units = Math.round(columns.getAmount(row) * UNITS);
+                long key = layout.key(row);
+                aggregates.payments++;
+                aggregates.amountUnits += units;
+
+                int start = columns.packageStart(row);
+                int packages = columns.packageEnd(row) - start;
+
+                if (!byPackage || packages == 0) {
+                    aggregates.add(key, units);
+                    continue;
+                }
+
+                for (int i = 0; i < packages; i++) {
+                    // Split the amount so the shares add up to it exactly
+                    long share = units * (i + 1) / packages - units * i / packages;
+                    aggregates.add(key | columns.packageIdAt(start + i) & 0xFFFFFFFFL, share);
+                }
+            }
+
+            return aggregates;
+        }
+    }
+
+    /**
+     * Open addressing hash table from a packed key to a count and a sum, without boxing
+     */
+    private static final class Aggregates {
+        private long[] keys;
+        private long[] counts;
+        private long[] sums;
+        private boolean[] used;
+        private int size;
+
+        long payments;
+        long amountUnits;
+
+        Aggregates(int capacity) {
+            this.keys = new long[capacity];
+            this.counts = new long[capacity];
+            this.sums = new long[capacity];
+            this.used = new boolean[capacity];
+        }
+
+        void add(long key, long units) {
+            add(key, 1, units);
+        }
+
+        private void add(long key, long count, long units) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    counts[slot] += count;
+                    sums[slot] += units;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            used[slot] = true;
+            keys[slot] = key;
+            counts[slot] = count;
+            sums[slot] = units;
+
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        /**
+         * Adds the entries of the smaller table to the bigger one
+         */
+        Aggregates merge(Aggregates other) {
+            Aggregates into = size >= other.size ? this : other;
+            Aggregates from = into == this ? other : this;
+
+            for (int slot = 0; slot < from.keys.length; slot++) {
+                if (from.used[slot]) {
+                    into.add(from.keys[slot], from.counts[slot], from.sums[slot]);
+                }
+            }
+
+            into.payments = payments + other.payments;
+            into.amountUnits = amountUnits + other.amountUnits;
+            return into;
+        }
+
+        RevenueReport toReport(KeyLayout layout) {
+            long[] sorted = new long[size];
+            int next = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (used[slot]) {
+                    sorted[next++] = keys[slot];
+                }
+            }
+            Arrays.sort(sorted);
+
+            List<RevenueGroup> groups = new ArrayList<>(size);
+            for (long key : sorted) {
+                int slot = find(key);
+                groups.add(layout.group(key, counts[slot], sums[slot]));
+            }
+
+            return new RevenueReport(layout.grouping, Collections.unmodifiableList(groups), payments, amountUnits);
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+
+            while (keys[slot] != key || !used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldSums = sums;
+            boolean[] oldUsed = used;
+
+            keys = new long[oldKeys.length * 2];
+            counts = new long[keys.length];
+            sums = new long[keys.length];
+            used = new boolean[keys.length];
+            size = 0;
+
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    add(oldKeys[slot], oldCounts[slot], oldSums[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package me.hugmanrique.tebexapi.analytics;
+
+import me.hugmanrique.tebexapi.data.Payment;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The payments of one group of a {@link RevenueReport}. The keys the report wasn't grouped by are
+ * left unset: -1 for the package and the time bucket, null for the currency and the status.
+ */
+public final class RevenueGroup {
+    private final int packageId;
+    private final String currency;
+    private final Payment.Status status;
+    private final long bucketStartMillis;
+    private final long count;
+    private final long amountUnits;
+
+    RevenueGroup(int packageId, String currency, Payment.Status status, long bucketStartMillis, long count, long amountUnits) {
+        this.packageId = packageId;
+        this.currency = currency;
+        this.status = status;
+        this.bucketStartMillis = bucketStartMillis;
+        this.count = count;
+        this.amountUnits = amountUnits;
+    }
+
+    /**
+     * @return the package id, 0 for payments without packages
+     */
+    public int getPackageId() {
+        return packageId;
+    }
+
+    @Nullable
+    public String getCurrency() {
+        return currency;
+    }
+
+    @Nullable
+    public Payment.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the first millisecond of the time bucket
+     */
+    public long getBucketStartMillis() {
+        return bucketStartMillis;
+    }
+
+    /**
+     * @return the number of payments
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the total amount, adding up currencies unless the report is grouped by currency
+     */
+    public double getAmount() {
+        return amountUnits / (double) RevenueAggregator.UNITS;
+    }
+
+    @Override
+    public String toString() {
+        return "RevenueGroup{" +
+                "packageId=" + packageId +
+                ", currency='" + currency + '\'' +
+                ", status=" + status +
+                ", bucketStartMillis=" + bucketStartMillis +
+                ", count=" + count +
+                ", amount=" + getAmount() +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package me.hugmanrique.tebexapi.analytics;
+
+import java.util.List;
+
+/**
+ * The result of a {@link RevenueAggregator} run: one {@link RevenueGroup} per distinct key,
+ * in order of time bucket, currency (in the order of {@link PaymentColumns#getCurrencies()}), status and package id
+ */
+public final class RevenueReport {
+    private final Grouping grouping;
+    private final List<RevenueGroup> groups;
+    private final long payments;
+    private final long amountUnits;
+
+    RevenueReport(Grouping grouping, List<RevenueGroup> groups, long payments, long amountUnits) {
+        this.grouping = grouping;
+        this.groups = groups;
+        this.payments = payments;
+        this.amountUnits = amountUnits;
+    }
+
+    public Grouping getGrouping() {
+        return grouping;
+    }
+
+    public List<RevenueGroup> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return the number of payments aggregated, each counted once even when grouped by package
+     */
+    public long getPayments() {
+        return payments;
+    }
+
+    /**
+     * @return the total amount of the aggregated payments, adding up all currencies
+     */
+    public double getTotalAmount() {
+        return amountUnits / (double) RevenueAggregator.UNITS;
+    }
+}
@@ -0,0 +1,23 @@
+package me.hugmanrique.tebexapi.cache;
+
+/**
+ * How a {@link ResponseCache} answered a read
+ */
+public enum CacheOutcome {
+
+    /**
+     * With a fresh response
+     */
+    HIT,
+
+    /**
+     * With a stale response, while it is refreshed in the background
+     */
+    STALE_HIT,
+
+    /**
+     * By waiting for Tebex
+     */
+    MISS
+
+}
@@ -0,0 +1,50 @@
+package me.hugmanrique.tebexapi.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a cached response is served for an endpoint
+ */
+public final class CachePolicy {
+    /**
+     * Never caches the responses
+     */
+    public static final CachePolicy DISABLED = new CachePolicy(0, 0);
+
+    private final long ttlNanos;
+    private final long staleNanos;
+
+    private CachePolicy(long ttlNanos, long staleNanos) {
+        this.ttlNanos = ttlNanos;
+        this.staleNanos = staleNanos;
+    }
+
+    /**
+     * Creates a new {@link CachePolicy}
+     * @param ttl For how long a response is served without contacting Tebex
+     * @param staleWhileRevalidate For how long after the ttl expired the old response is still
+     *                             served while a single background request refreshes it. Past that,
+     *                             readers wait for a new response
+     * @param unit The {@link TimeUnit} of both durations
+     * @return the policy
+     */
+    public static CachePolicy of(long ttl, long staleWhileRevalidate, TimeUnit unit) {
+        if (ttl < 0 || staleWhileRevalidate < 0) {
+            throw new IllegalArgumentException("Durations cannot be negative");
+        }
+
+        return new CachePolicy(unit.toNanos(ttl), unit.toNanos(staleWhileRevalidate));
+    }
+
+    public long getTtlNanos() {
+        return ttlNanos;
+    }
+
+    public long getStaleWhileRevalidateNanos() {
+        return staleNanos;
+    }
+
+    public boolean isEnabled() {
+        return ttlNanos > 0 || staleNanos > 0;
+    }
+}
@@ -0,0 +1,23 @@
+package me.hugmanrique.tebexapi.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read endpoints a {@link ResponseCache} can serve, with their default {@link CachePolicy}
+ */
+public enum CachedEndpoint {
+
+    INFORMATION(CachePolicy.of(5, 60, TimeUnit.MINUTES)),
+    LISTING(CachePolicy.of(60, 600, TimeUnit.SECONDS)),
+    GIFT_CARD(CachePolicy.of(10, 0, TimeUnit.SECONDS));
+
+    private final CachePolicy defaultPolicy;
+
+    CachedEndpoint(CachePolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public CachePolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+}
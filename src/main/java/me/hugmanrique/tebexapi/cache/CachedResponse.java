@@ -0,0 +1,63 @@
+package me.hugmanrique.tebexapi.cache;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable decoded response stored in a {@link ResponseCache}, along with
+ * the validators used to revalidate it
+ * @param <T> The type of the decoded value
+ */
+public final class CachedResponse<T> {
+    private final T value;
+    private final String etag;
+    private final String lastModified;
+    private final long fetchedAt;
+
+    public CachedResponse(@Nullable T value, @Nullable String etag, @Nullable String lastModified) {
+        this(value, etag, lastModified, System.nanoTime());
+    }
+
+    private CachedResponse(T value, String etag, String lastModified, long fetchedAt) {
+        this.value = value;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Creates a copy of this response that was just confirmed to be up to date
+     * (e.g. the server returned 304 Not Modified)
+     * @return a new {@link CachedResponse} with the same value
+     */
+    public CachedResponse<T> revalidated() {
+        return new CachedResponse<>(value, etag, lastModified, System.nanoTime());
+    }
+
+    @Nullable
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return the ETag header of the response, sent back as If-None-Match
+     */
+    @Nullable
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return the Last-Modified header of the response, sent back as If-Modified-Since
+     */
+    @Nullable
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} this response was fetched or last revalidated at
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+}
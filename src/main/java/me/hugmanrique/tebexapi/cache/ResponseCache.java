@@ -0,0 +1,333 @@
+package me.hugmanrique.tebexapi.cache;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in cache for the read endpoints of a {@link me.hugmanrique.tebexapi.TebexApi},
+ * see {@link me.hugmanrique.tebexapi.TebexApi#setResponseCache(ResponseCache)}.
+ *
+ * Each cached response is an immutable {@link CachedResponse} swapped atomically, so a
+ * fresh or stale hit never takes a lock nor waits for the network. Once an entry is older
+ * than its {@link CachePolicy} ttl it is still served while one background refresh runs on
+ * the refresh {@link Executor}, sending the ETag/Last-Modified validators so Tebex can answer
+ * 304 Not Modified. If the refresh fails, the stale response keeps being served and no other
+ * refresh starts until the {@code refreshBackoff} passed. Once the cache holds more than
+ * {@code maxEntries} responses, the least recently read eighth of them is evicted at once.
+ *
+ * Cached values are shared between every caller and must not be modified.
+ */
+public class ResponseCache {
+    private final Map<CachedEndpoint, CachePolicy> policies;
+    private final int maxEntries;
+    private final long refreshBackoffNanos;
+    private final Executor refreshExecutor;
+
+    private final ConcurrentHashMap<String, Slot<?>> slots = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private ResponseCache(Builder builder) {
+        this.policies = new EnumMap<>(builder.policies);
+        this.maxEntries = builder.maxEntries;
+        this.refreshBackoffNanos = builder.refreshBackoffNanos;
+        this.refreshExecutor = builder.refreshExecutor;
+    }
+
+    public static Builder builder(@NotNull Executor refreshExecutor) {
+        return new Builder(refreshExecutor);
+    }
+
+    public CachePolicy getPolicy(CachedEndpoint endpoint) {
+        return policies.get(endpoint);
+    }
+
+    /**
+     * Gets a cached value, loading it if it is missing or too stale
+     * @param key The cache key, usually the request path
+     * @param endpoint The endpoint the key belongs to
+     * @param loader Fetches a new response, given the current one (or null) to revalidate
+     * @param <T> The type of the value
+     * @return the cached or loaded value
+     * @throws TebexException If the value had to be loaded and the loader failed
+     */
+    @Nullable
+    public <T> T get(@NotNull String key, @NotNull CachedEndpoint endpoint, @NotNull Loader<T> loader) throws TebexException {
+        return get(key, endpoint, loader, null);
+    }
+
+    /**
+     * Gets a cached value, loading it if it is missing or too stale
+     * @param key The cache key, usually the request path
+     * @param endpoint The endpoint the key belongs to
+     * @param loader Fetches a new response, given the current one (or null) to revalidate
+     * @param observer Told how the read was answered, may be null
+     * @param <T> The type of the value
+     * @return the cached or loaded value
+     * @throws TebexException If the value had to be loaded and the loader failed
+     */
+    @Nullable
+    public <T> T get(@NotNull String key, @NotNull CachedEndpoint endpoint, @NotNull Loader<T> loader,
+                     @Nullable Consumer<CacheOutcome> observer) throws TebexException {
+        CachePolicy policy = policies.get(endpoint);
+        if (!policy.isEnabled()) {
+            misses.increment();
+            observe(observer, CacheOutcome.MISS);
+            return loader.load(null).getValue();
+        }
+
+        Slot<T> slot = slot(key);
+        long now = System.nanoTime();
+        slot.lastAccess = now;
+
+        CachedResponse<T> current = slot.response.get();
+        if (current != null) {
+            long age = now - current.getFetchedAt();
+
+            if (age < policy.getTtlNanos()) {
+                hits.increment();
+                observe(observer, CacheOutcome.HIT);
+                return current.getValue();
+            }
+            if (age < policy.getTtlNanos() + policy.getStaleWhileRevalidateNanos()) {
+                staleHits.increment();
+                observe(observer, CacheOutcome.STALE_HIT);
+                refresh(slot, loader, now);
+                return current.getValue();
+            }
+        }
+
+        misses.increment();
+        observe(observer, CacheOutcome.MISS);
+        CachedResponse<T> loaded = loader.load(current);
+        slot.response.set(loaded);
+        slot.failed = false;
+
+        return loaded.getValue();
+    }
+
+    /**
+     * Stores a value, e.g. one that was just created
+     * @param key The cache key, usually the request path
+     * @param value The value to store
+     */
+    public <T> void put(@NotNull String key, @Nullable T value) {
+        Slot<T> slot = slot(key);
+        slot.lastAccess = System.nanoTime();
+        slot.response.set(new CachedResponse<>(value, null, null));
+    }
+
+    public void invalidate(@NotNull String key) {
+        slots.remove(key);
+    }
+
+    public void invalidateAll() {
+        slots.clear();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return the number of reads answered with a fresh response
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of reads answered with a stale response while it was refreshed
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    /**
+     * @return the number of reads that had to wait for Tebex
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static void observe(Consumer<CacheOutcome> observer, CacheOutcome outcome) {
+        if (observer != null) {
+            observer.accept(outcome);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Slot<T> slot(String key) {
+        Slot<T> slot = (Slot<T>) slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+
+        slot = (Slot<T>) slots.computeIfAbsent(key, k -> new Slot<>());
+        if (slots.size() > maxEntries) {
+            evictLeastRecentlyRead(key);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Evicts the least recently read eighth of the entries, so a full cache is scanned once
+     * every {@code maxEntries / 8} inserts instead of on each of them
+     */
+    private void evictLeastRecentlyRead(String keep) {
+        if (!evicting.compareAndSet(false, true)) {
+            // Another insert is already evicting
+            return;
+        }
+
+        try {
+            List<Map.Entry<String, Slot<?>>> entries = new ArrayList<>(slots.entrySet());
+            int excess = entries.size() - (maxEntries - maxEntries / 8);
+            if (excess <= 0) {
+                return;
+            }
+
+            // Copy the access times, they keep changing while the entries are sorted
+            long now = System.nanoTime();
+            long[] idle = new long[entries.size()];
+            for (int i = 0; i < idle.length; i++) {
+                idle[i] = entries.get(i).getKey().equals(keep) ? Long.MIN_VALUE : now - entries.get(i).getValue().lastAccess;
+            }
+
+            long[] sorted = idle.clone();
+            Arrays.sort(sorted);
+            long threshold = sorted[Math.max(0, sorted.length - excess)];
+
+            int evicted = 0;
+            for (int i = 0; i < idle.length && evicted < excess; i++) {
+                Map.Entry<String, Slot<?>> entry = entries.get(i);
+                if (idle[i] >= threshold && idle[i] != Long.MIN_VALUE && slots.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private <T> void refresh(Slot<T> slot, Loader<T> loader, long now) {
+        if (slot.failed && now - slot.failedAt < refreshBackoffNanos) {
+            // Tebex just failed to answer, don't send a request on every stale read
+            return;
+        }
+        if (!slot.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    slot.response.set(loader.load(slot.response.get()));
+                    slot.failed = false;
+                } catch (TebexException e) {
+                    // Keep serving the stale response, the first read past the backoff retries
+                    slot.failedAt = System.nanoTime();
+                    slot.failed = true;
+                    e.printStackTrace();
+                } finally {
+                    slot.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slot.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Fetches a new response for a cache entry
+     * @param <T> The type of the value
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        /**
+         * @param previous The current response to revalidate, or null if there is none
+         * @return the new response, or {@link CachedResponse#revalidated()} if it didn't change
+         */
+        @NotNull
+        CachedResponse<T> load(@Nullable CachedResponse<T> previous) throws TebexException;
+    }
+
+    private static final class Slot<T> {
+        final AtomicReference<CachedResponse<T>> response = new AtomicReference<>();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long lastAccess;
+        volatile long failedAt;
+        volatile boolean failed;
+    }
+
+    public static final class Builder {
+        private final Map<CachedEndpoint, CachePolicy> policies = new EnumMap<>(CachedEndpoint.class);
+        private final Executor refreshExecutor;
+        private int maxEntries = 1024;
+        private long refreshBackoffNanos = TimeUnit.SECONDS.toNanos(10);
+
+        private Builder(Executor refreshExecutor) {
+            this.refreshExecutor = Objects.requireNonNull(refreshExecutor, "refreshExecutor");
+
+            for (CachedEndpoint endpoint : CachedEndpoint.values()) {
+                policies.put(endpoint, endpoint.getDefaultPolicy());
+            }
+        }
+
+        /**
+         * Sets the {@link CachePolicy} of an endpoint, {@link CachePolicy#DISABLED} turns off its caching
+         */
+        public Builder policy(@NotNull CachedEndpoint endpoint, @NotNull CachePolicy policy) {
+            policies.put(endpoint, Objects.requireNonNull(policy, "policy"));
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached responses, 1024 by default
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be positive");
+            }
+
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets how long a failed background refresh waits before the next one starts, 10 seconds by default
+         */
+        public Builder refreshBackoff(long backoff, @NotNull TimeUnit unit) {
+            if (backoff < 0) {
+                throw new IllegalArgumentException("backoff cannot be negative");
+            }
+
+            this.refreshBackoffNanos = unit.toNanos(backoff);
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
@@ -12,14 +12,14 @@ import org.json.JSONObject;
  *         Spigot. Created the 14/05/2016.
  **/
 public class Account {
-    private int id;
-    private String domain;
-    private String name;
+    private final int id;
+    private final String domain;
+    private final String name;
 
-    private String currencyName;
-    private String currencySymbol;
+    private final String currencyName;
+    private final String currencySymbol;
 
-    private boolean onlineMode;
+    private final boolean onlineMode;
 
     public Account(int id, String domain, String name, String currencyName, String currencySymbol, boolean onlineMode) {
         this.id = id;
@@ -66,4 +66,14 @@ public class Account {
     public boolean isOnlineMode() {
         return onlineMode;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Account && id == ((Account) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
 }
@@ -1,8 +1,8 @@
 package me.hugmanrique.tebexapi.data;
 
-import java.util.LinkedHashSet;
 import me.hugmanrique.tebexapi.TebexApi;
 
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -14,21 +14,21 @@ import java.util.Set;
  *         Spigot. Created the 14/05/2016.
  **/
 public class Category {
-    private int id;
-    private int order;
-    private String name;
+    private final int id;
+    private final int order;
+    private final String name;
 
-    private boolean onlySubCategories;
+    private final boolean onlySubCategories;
 
-    private Set<Category> subCategories;
-    private Set<Package> packages;
+    private final Set<Category> subCategories;
+    private final Set<Package> packages;
 
     public Category(int id, int order, String name, Set<Category> subCategories) {
         this.id = id;
         this.order = order;
         this.name = name;
-        this.subCategories = subCategories;
-        this.packages = new LinkedHashSet<>();
+        this.subCategories = Collections.unmodifiableSet(subCategories);
+        this.packages = Collections.emptySet();
         this.onlySubCategories = true;
     }
 
@@ -36,8 +36,8 @@ public class Category {
         this.id = id;
         this.order = order;
         this.name = name;
-        this.packages = packages;
-        this.subCategories = new LinkedHashSet<>();
+        this.packages = Collections.unmodifiableSet(packages);
+        this.subCategories = Collections.emptySet();
         onlySubCategories = false;
     }
 
@@ -45,8 +45,8 @@ public class Category {
         this.id = id;
         this.order = order;
         this.name = name;
-        this.subCategories = subCategories;
-        this.packages = packages;
+        this.subCategories = Collections.unmodifiableSet(subCategories);
+        this.packages = Collections.unmodifiableSet(packages);
         this.onlySubCategories = !subCategories.isEmpty()&&packages.isEmpty();
     }
 
@@ -94,4 +94,14 @@ public class Category {
     public Category getSubCategory(String name){
         return TebexApi.filterAndGet(subCategories.stream(), category -> name.equals(category.getName()));
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Category && id == ((Category) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
 }
\ No newline at end of file
@@ -30,4 +30,13 @@ public class GiftCard {
 		return remaining;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		return this == o || o instanceof GiftCard && id == ((GiftCard) o).id;
+	}
+
+	@Override
+	public int hashCode() {
+		return Integer.hashCode(id);
+	}
 }
\ No newline at end of file
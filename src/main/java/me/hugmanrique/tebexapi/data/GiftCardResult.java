@@ -0,0 +1,62 @@
+package me.hugmanrique.tebexapi.data;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The outcome of one card of a bulk creation: either the created {@link GiftCard} or the error
+ * its request failed with, see {@link me.hugmanrique.tebexapi.TebexAsyncApi#createGiftCards(double[], String, int, java.util.function.Consumer)}
+ */
+public final class GiftCardResult {
+    private final int index;
+    private final double amount;
+    private final GiftCard giftCard;
+    private final Throwable error;
+
+    public GiftCardResult(int index, double amount, @Nullable GiftCard giftCard, @Nullable Throwable error) {
+        this.index = index;
+        this.amount = amount;
+        this.giftCard = giftCard;
+        this.error = error;
+    }
+
+    /**
+     * @return the position of the card in the requested amounts
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * @return the created card, or null if it couldn't be created
+     */
+    @Nullable
+    public GiftCard getGiftCard() {
+        return giftCard;
+    }
+
+    /**
+     * @return why the card couldn't be created, or null if it was
+     */
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "GiftCardResult{" +
+                "index=" + index +
+                ", amount=" + amount +
+                ", giftCard=" + (giftCard == null ? null : giftCard.getId()) +
+                ", error=" + error +
+                '}';
+    }
+}
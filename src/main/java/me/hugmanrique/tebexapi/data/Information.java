@@ -9,13 +9,13 @@ package me.hugmanrique.tebexapi.data;
  *         Spigot. Created the 14/05/2016.
  **/
 public class Information {
-    private Account account;
+    private final Account account;
 
-    private int serverId;
-    private String serverName;
+    private final int serverId;
+    private final String serverName;
 
-    private String analyticsProject;
-    private String analyticsKey;
+    private final String analyticsProject;
+    private final String analyticsKey;
 
     public Information(Account account, int serverId, String serverName, String analyticsProject, String analyticsKey) {
         this.account = account;
@@ -0,0 +1,154 @@
+package me.hugmanrique.tebexapi.data;
+
+import me.hugmanrique.tebexapi.utils.JsonStreamReader;
+import me.hugmanrique.tebexapi.utils.TebexDecoder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A {@link Payment} that keeps the JSON of its record and only decodes a group of fields (the
+ * amount, the date, the currency, the player, the status or the packages) the first time one of
+ * them is read, so going through a page for a single field skips most of the decoding work.
+ *
+ * It is safe to share between threads: two threads reading the same group for the first time at
+ * worst both decode it, and every thread sees the same values an eagerly decoded payment would have.
+ *
+ * @see me.hugmanrique.tebexapi.TebexApi#getPaymentsPagedLazy(int)
+ */
+public final class LazyPayment extends Payment {
+    private final char[] json;
+    private final int[] offsets;
+    private final TebexDecoder decoder;
+
+    private volatile Payment amount;
+    private volatile Payment date;
+    private volatile Payment currency;
+    private volatile Payment player;
+    private volatile Payment status;
+    private volatile Payment packages;
+
+    /**
+     * Creates a new instance of {@link LazyPayment}
+     * @param id The id of the payment
+     * @param json The JSON object of the payment, which is kept without copying it
+     * @param offsets The position of each group of fields in the object
+     * @param decoder The decoder the fields are decoded with
+     * @see TebexDecoder#parseLazyPayment(JsonStreamReader)
+     */
+
+    public LazyPayment(int id, @NotNull char[] json, @NotNull int[] offsets, @NotNull TebexDecoder decoder) {
+        super(id);
+        this.json = Objects.requireNonNull(json, "json");
+        this.offsets = Objects.requireNonNull(offsets, "offsets");
+        this.decoder = Objects.requireNonNull(decoder, "decoder");
+    }
+
+    /**
+     * @return the JSON object this payment is decoded from
+     */
+    public String getJson() {
+        return new String(json);
+    }
+
+    @Override
+    public double getAmount() {
+        Payment decoded = amount;
+        if (decoded == null) {
+            amount = decoded = decode(TebexDecoder.PAYMENT_AMOUNT);
+        }
+        return decoded.getAmount();
+    }
+
+    @Override
+    public long getEpochMillis() {
+        Payment decoded = date;
+        if (decoded == null) {
+            date = decoded = decode(TebexDecoder.PAYMENT_DATE);
+        }
+        return decoded.getEpochMillis();
+    }
+
+    @Override
+    public String getCurrency() {
+        return currency().getCurrency();
+    }
+
+    @Override
+    public String getCurrencySymbol() {
+        return currency().getCurrencySymbol();
+    }
+
+    @Override
+    public int getPlayerId() {
+        return player().getPlayerId();
+    }
+
+    @Override
+    public String getPlayerName() {
+        return player().getPlayerName();
+    }
+
+    @Override
+    public UUID getPlayerUuid() {
+        return player().getPlayerUuid();
+    }
+
+    @Override
+    public Status getStatus() {
+        Payment decoded = status;
+        if (decoded == null) {
+            status = decoded = decode(TebexDecoder.PAYMENT_STATUS);
+        }
+        return decoded.getStatus();
+    }
+
+    @Override
+    public PackageMap getPackages() {
+        Payment decoded = packages;
+        if (decoded == null) {
+            packages = decoded = decode(TebexDecoder.PAYMENT_PACKAGES);
+        }
+        return decoded.getPackages();
+    }
+
+    /**
+     * Decodes every field now, e.g. before the payment is handed to code that reads all of them
+     * @return a plain {@link Payment} with the same values
+     */
+    public Payment decodeAll() {
+        try {
+            return decoder.parsePayment(new JsonStreamReader(json), TebexDecoder.PAYMENT_ALL);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't decode payment " + getId(), e);
+        }
+    }
+
+    private Payment currency() {
+        Payment decoded = currency;
+        if (decoded == null) {
+            currency = decoded = decode(TebexDecoder.PAYMENT_CURRENCY);
+        }
+        return decoded;
+    }
+
+    private Payment player() {
+        Payment decoded = player;
+        if (decoded == null) {
+            player = decoded = decode(TebexDecoder.PAYMENT_PLAYER);
+        }
+        return decoded;
+    }
+
+    private Payment decode(int field) {
+        try {
+            return decoder.parsePaymentField(json, offsets, field);
+        } catch (IOException e) {
+            // The record was already read once as valid JSON, only a value of the wrong type gets here
+            throw new UncheckedIOException("Couldn't decode payment " + getId(), e);
+        }
+    }
+}
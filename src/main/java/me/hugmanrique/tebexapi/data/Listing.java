@@ -0,0 +1,132 @@
+package me.hugmanrique.tebexapi.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable snapshot of all the {@link Category Categories} and {@link Package Packages}
+ * of a store, indexed so any of them can be found by id or name in constant time,
+ * wherever it is in the category tree.
+ *
+ * @see me.hugmanrique.tebexapi.TebexApi#getIndexedListing()
+ */
+public class Listing {
+    private final Set<Category> categories;
+    private final List<Package> packages;
+
+    private final Map<Integer, Package> packagesById;
+    private final Map<String, Package> packagesByName;
+    private final Map<Integer, Category> categoriesById;
+    private final Map<String, Category> categoriesByName;
+
+    private final Map<Integer, Category> packageCategories;
+    private final Map<Integer, Category> parentCategories;
+
+    /**
+     * Creates a new {@link Listing} indexing the given category tree
+     * @param categories The top level categories, as returned by {@link me.hugmanrique.tebexapi.TebexApi#getListing()}
+     */
+    public Listing(@NotNull Set<Category> categories) {
+        this.categories = Collections.unmodifiableSet(new LinkedHashSet<>(categories));
+
+        List<Package> packages = new ArrayList<>();
+        this.packagesById = new HashMap<>();
+        this.packagesByName = new HashMap<>();
+        this.categoriesById = new HashMap<>();
+        this.categoriesByName = new HashMap<>();
+        this.packageCategories = new HashMap<>();
+        this.parentCategories = new HashMap<>();
+
+        for (Category category : this.categories) {
+            index(category, null, packages);
+        }
+
+        this.packages = Collections.unmodifiableList(Arrays.asList(packages.toArray(new Package[0])));
+    }
+
+    private void index(Category category, Category parent, List<Package> packages) {
+        categoriesById.putIfAbsent(category.getId(), category);
+        categoriesByName.putIfAbsent(category.getName(), category);
+        if (parent != null) {
+            parentCategories.putIfAbsent(category.getId(), parent);
+        }
+
+        for (Package pack : category.getPackages()) {
+            packages.add(pack);
+            packagesById.putIfAbsent(pack.getId(), pack);
+            packagesByName.putIfAbsent(pack.getName(), pack);
+            packageCategories.putIfAbsent(pack.getId(), category);
+        }
+
+        for (Category child : category.getSubCategories()) {
+            index(child, category, packages);
+        }
+    }
+
+    /**
+     * @return the top level categories
+     */
+    public Set<Category> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Gets every package of the store, in the order they appear in the category tree
+     * (the packages of a category come before the ones of its subcategories)
+     * @return an unmodifiable {@link List} of all the packages
+     */
+    public List<Package> getPackages() {
+        return packages;
+    }
+
+    @Nullable
+    public Package getPackage(int id) {
+        return packagesById.get(id);
+    }
+
+    /**
+     * Gets a package by its exact name. If many packages share it, the first one in tree order is returned
+     */
+    @Nullable
+    public Package getPackage(String name) {
+        return packagesByName.get(name);
+    }
+
+    /**
+     * Gets a category or subcategory by its id
+     */
+    @Nullable
+    public Category getCategory(int id) {
+        return categoriesById.get(id);
+    }
+
+    /**
+     * Gets a category or subcategory by its exact name. If many categories share it, the first one in tree order is returned
+     */
+    @Nullable
+    public Category getCategory(String name) {
+        return categoriesByName.get(name);
+    }
+
+    /**
+     * Gets the category that contains a package
+     * @param packageId The id of the {@link Package}
+     * @return the {@link Category} or null if the package isn't in this listing
+     */
+    @Nullable
+    public Category getCategoryOf(int packageId) {
+        return packageCategories.get(packageId);
+    }
+
+    /**
+     * Gets the parent of a subcategory
+     * @param categoryId The id of the {@link Category}
+     * @return the parent {@link Category} or null if it is a top level category or isn't in this listing
+     */
+    @Nullable
+    public Category getParent(int categoryId) {
+        return parentCategories.get(categoryId);
+    }
+}
@@ -11,16 +11,16 @@ import java.util.UUID;
  *         Spigot. Created the 14/05/2016.
  **/
 public class OfflineCommand {
-    private int id;
-    private String command;
-    private String payment;
-    private String packageId;
+    private final int id;
+    private final String command;
+    private final String payment;
+    private final String packageId;
 
-    private int delay;
+    private final int delay;
 
-    private int playerId;
-    private String playerName;
-    private UUID playerUUID;
+    private final int playerId;
+    private final String playerName;
+    private final UUID playerUUID;
 
     public OfflineCommand(int id, String command, String payment, String packageId, int delay, int playerId, String playerName, UUID playerUUID) {
         this.id = id;
@@ -64,4 +64,14 @@ public class OfflineCommand {
     public UUID getPlayerUUID() {
         return playerUUID;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof OfflineCommand && id == ((OfflineCommand) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
 }
@@ -0,0 +1,63 @@
+package me.hugmanrique.tebexapi.data;
+
+/**
+ * A command that has to be executed while its player is online
+ */
+public class OnlineCommand {
+    private final int id;
+    private final String command;
+    private final String payment;
+    private final String packageId;
+
+    private final int delay;
+    private final int requiredSlots;
+
+    public OnlineCommand(int id, String command, String payment, String packageId, int delay, int requiredSlots) {
+        this.id = id;
+        this.command = command;
+        this.payment = payment;
+        this.packageId = packageId;
+        this.delay = delay;
+        this.requiredSlots = requiredSlots;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getPayment() {
+        return payment;
+    }
+
+    public String getPackageId() {
+        return packageId;
+    }
+
+    /**
+     * Gets the number of seconds to wait before executing the command
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Gets the number of free inventory slots the player needs before the command can be executed
+     */
+    public int getRequiredSlots() {
+        return requiredSlots;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof OnlineCommand && id == ((OnlineCommand) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+}
@@ -15,17 +15,19 @@ public class Package {
     private final double price;
 
     private final boolean inSale;
-    private double discount;
+    private final double discount;
 
     public Package(int id, int order, String name, double price, boolean inSale, Double discount) {
+        this(id, order, name, price, inSale, discount == null ? 0 : discount.doubleValue());
+    }
+
+    public Package(int id, int order, String name, double price, boolean inSale, double discount) {
         this.id = id;
         this.order = order;
         this.name = name;
         this.price = price;
         this.inSale = inSale;
-        if (inSale){
-            this.discount = discount;
-        }
+        this.discount = inSale ? discount : 0;
     }
 
     public int getId() {
@@ -51,4 +53,14 @@ public class Package {
     public double getDiscount() {
         return discount;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Package && id == ((Package) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
 }
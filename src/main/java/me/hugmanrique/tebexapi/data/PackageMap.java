@@ -0,0 +1,177 @@
+package me.hugmanrique.tebexapi.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable map from package id to package name, stored as a sorted {@code int[]} of ids and
+ * a parallel array of names. It takes a fraction of the memory of a {@link HashMap} with its boxed
+ * keys and entry objects, and {@link #get(int)} looks ids up with a binary search without boxing.
+ */
+public final class PackageMap extends AbstractMap<Integer, String> {
+    public static final PackageMap EMPTY = new PackageMap(new int[0], new String[0]);
+
+    private final int[] ids;
+    private final String[] names;
+
+    private PackageMap(int[] ids, String[] names) {
+        this.ids = ids;
+        this.names = names;
+    }
+
+    /**
+     * Copies a map, e.g. the packages of a {@link Payment} built by hand
+     */
+    public static PackageMap copyOf(@Nullable Map<Integer, String> packages) {
+        if (packages == null || packages.isEmpty()) {
+            return EMPTY;
+        }
+        if (packages instanceof PackageMap) {
+            return (PackageMap) packages;
+        }
+
+        Builder builder = new Builder(packages.size());
+        for (Map.Entry<Integer, String> entry : packages.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the name of a package, or null if it isn't in this map
+     */
+    @Nullable
+    public String get(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? null : names[index];
+    }
+
+    public boolean containsKey(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * @param index The index of the package, lower than {@link #size()}
+     * @return the id of the package, in ascending order
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    @Override
+    public String get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<Integer, String>> entrySet() {
+        return new AbstractSet<Entry<Integer, String>>() {
+            @Override
+            public Iterator<Entry<Integer, String>> iterator() {
+                return new Iterator<Entry<Integer, String>>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < ids.length;
+                    }
+
+                    @Override
+                    public Entry<Integer, String> next() {
+                        if (next >= ids.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(ids[index], names[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+    /**
+     * Collects packages in any order. A repeated id keeps the last name
+     */
+    public static final class Builder {
+        private int[] ids;
+        private String[] names;
+        private int size;
+
+        public Builder() {
+            this(4);
+        }
+
+        public Builder(int expectedSize) {
+            this.ids = new int[Math.max(1, expectedSize)];
+            this.names = new String[ids.length];
+        }
+
+        public Builder put(int id, String name) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+            }
+
+            ids[size] = id;
+            names[size] = name;
+            size++;
+            return this;
+        }
+
+        public PackageMap build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            // Packages lists are short, an insertion sort keeps the ids and names together
+            int[] sortedIds = Arrays.copyOf(ids, size);
+            String[] sortedNames = Arrays.copyOf(names, size);
+            int unique = 0;
+
+            for (int i = 0; i < size; i++) {
+                int id = sortedIds[i];
+                String name = sortedNames[i];
+                int position = Arrays.binarySearch(sortedIds, 0, unique, id);
+
+                if (position >= 0) {
+                    sortedNames[position] = name;
+                    continue;
+                }
+
+                position = -position - 1;
+                System.arraycopy(sortedIds, position, sortedIds, position + 1, unique - position);
+                System.arraycopy(sortedNames, position, sortedNames, position + 1, unique - position);
+                sortedIds[position] = id;
+                sortedNames[position] = name;
+                unique++;
+            }
+
+            return new PackageMap(unique == size ? sortedIds : Arrays.copyOf(sortedIds, unique),
+                    unique == size ? sortedNames : Arrays.copyOf(sortedNames, unique));
+        }
+    }
+}
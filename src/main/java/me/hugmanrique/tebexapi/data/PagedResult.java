@@ -1,5 +1,6 @@
 package me.hugmanrique.tebexapi.data;
 
+import java.util.Collections;
 import java.util.List;
 
 public class PagedResult<T> {
@@ -15,7 +16,7 @@ public class PagedResult<T> {
 	private final int indexTo;
 
 	public PagedResult(List<T> results, int resultsPerPage, int currentPage, int totalResults, int totalPages, int indexFrom, int indexTo) {
-		this.results = results;
+		this.results = Collections.unmodifiableList(results);
 		this.resultsPerPage = resultsPerPage;
 		this.currentPage = currentPage;
 		this.totalResults = totalResults;
@@ -66,6 +67,9 @@ public class PagedResult<T> {
 		return indexTo;
 	}
 
+	/**
+	 * @return an unmodifiable list of the results in this page.
+	 */
 	public List<T> getResults() {
 		return results;
 	}
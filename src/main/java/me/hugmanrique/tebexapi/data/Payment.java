@@ -1,7 +1,10 @@
 package me.hugmanrique.tebexapi.data;
 
 import me.hugmanrique.tebexapi.TebexApi;
+import me.hugmanrique.tebexapi.utils.TebexDates;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -15,24 +18,34 @@ import java.util.UUID;
  *         Spigot. Created the 14/05/2016.
  **/
 public class Payment {
-    private int id;
-    private double amount;
-    private Date date;
+    private final int id;
+    private final double amount;
+    private final long epochMillis;
 
-    private String currency;
-    private String currencySymbol;
+    private final String currency;
+    private final String currencySymbol;
 
-    private int playerId;
-    private String playerName;
-    private UUID playerUuid;
+    private final int playerId;
+    private final String playerName;
+    private final UUID playerUuid;
 
-    private Status status;
+    private final Status status;
 
-    private Map<Integer, String> packages;
+    private final PackageMap packages;
 
     public Payment(int id, double amount, Date date, String currency, String currencySymbol, int playerId, String playerName, UUID playerUuid, Status status, Map<Integer, String> packages) {
+        this(id, amount, date == null ? TebexDates.INVALID : date.getTime(), currency, currencySymbol, playerId, playerName, playerUuid, status, PackageMap.copyOf(packages));
+    }
+
+    /**
+     * Creates a new instance of {@link Payment}
+     * @param epochMillis The date of the payment in milliseconds since the epoch, or {@link TebexDates#INVALID} if it's unknown
+     * @param packages The bought packages, see {@link PackageMap.Builder}
+     */
+
+    public Payment(int id, double amount, long epochMillis, String currency, String currencySymbol, int playerId, String playerName, UUID playerUuid, Status status, PackageMap packages) {
         this.id = id;
-        this.date = date;
+        this.epochMillis = epochMillis;
         this.amount = amount;
         this.currency = currency;
         this.currencySymbol = currencySymbol;
@@ -40,7 +53,16 @@ public class Payment {
         this.playerName = playerName;
         this.playerUuid = playerUuid;
         this.status = status;
-        this.packages = packages;
+        this.packages = packages == null ? PackageMap.EMPTY : packages;
+    }
+
+    /**
+     * Creates a {@link Payment} that only knows its id, for subclasses that override the other getters
+     * @see LazyPayment
+     */
+
+    protected Payment(int id) {
+        this(id, 0, TebexDates.INVALID, null, null, 0, null, null, Status.UNKNOWN, PackageMap.EMPTY);
     }
 
     public int getId() {
@@ -76,8 +98,25 @@ public class Payment {
         return playerUuid;
     }
 
+    /**
+     * @return a new {@link Date} of the payment, or null if it's unknown
+     */
     public Date getDate() {
-        return date;
+        long epochMillis = getEpochMillis();
+        return epochMillis == TebexDates.INVALID ? null : new Date(epochMillis);
+    }
+
+    /**
+     * @return the date of the payment in milliseconds since the epoch, or {@link TebexDates#INVALID} if it's unknown
+     */
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    @Nullable
+    public Instant getInstant() {
+        long epochMillis = getEpochMillis();
+        return epochMillis == TebexDates.INVALID ? null : Instant.ofEpochMilli(epochMillis);
     }
 
     public Status getStatus() {
@@ -85,15 +124,25 @@ public class Payment {
     }
 
     /**
-     * Gets a {@link Map} with all the bought ids as keys and names as values
+     * Gets a {@link Map} with all the bought ids as keys and names as values, see {@link PackageMap#get(int)}
      * @return A map containing all the {@link Package} ids and names
      * @see {@link TebexApi#getListing()} To get the information of a {@link Package} id
      */
 
-    public Map<Integer, String> getPackages() {
+    public PackageMap getPackages() {
         return packages;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Payment && id == ((Payment) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
     public enum Status {
 
         COMPLETE,
@@ -1,5 +1,8 @@
 package me.hugmanrique.tebexapi.data;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by HugmanriqueMC. All Rights Reserved
  * The copy of this file may not be copied in any form without
@@ -9,16 +12,20 @@ package me.hugmanrique.tebexapi.data;
  *         Spigot. Created the 14/05/2016.
  **/
 public class PlayerQueue {
-    private boolean executeOffline;
-    private int nextCheck;
-    private boolean more;
-
-    //TODO Try to see how a Player object is
+    private final boolean executeOffline;
+    private final int nextCheck;
+    private final boolean more;
+    private final List<QueuedPlayer> players;
 
     public PlayerQueue(boolean executeOffline, int nextCheck, boolean more) {
+        this(executeOffline, nextCheck, more, Collections.emptyList());
+    }
+
+    public PlayerQueue(boolean executeOffline, int nextCheck, boolean more, List<QueuedPlayer> players) {
         this.executeOffline = executeOffline;
         this.nextCheck = nextCheck;
         this.more = more;
+        this.players = Collections.unmodifiableList(players);
     }
 
     public boolean isExecuteOffline() {
@@ -32,4 +39,12 @@ public class PlayerQueue {
     public boolean isMore() {
         return more;
     }
+
+    /**
+     * Gets the players in this page of the queue that have online commands due
+     * @return an unmodifiable {@link List} of {@link QueuedPlayer QueuedPlayers}
+     */
+    public List<QueuedPlayer> getPlayers() {
+        return players;
+    }
 }
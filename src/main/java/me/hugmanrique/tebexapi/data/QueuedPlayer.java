@@ -0,0 +1,48 @@
+package me.hugmanrique.tebexapi.data;
+
+import java.util.UUID;
+
+/**
+ * A player with commands due in the {@link PlayerQueue}. Players are equal when their ids are
+ */
+public class QueuedPlayer {
+    private final int id;
+    private final String name;
+    private final UUID uuid;
+
+    public QueuedPlayer(int id, String name, UUID uuid) {
+        this.id = id;
+        this.name = name;
+        this.uuid = uuid;
+    }
+
+    /**
+     * Gets the Tebex id of the player, used to fetch its online commands
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof QueuedPlayer && id == ((QueuedPlayer) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "QueuedPlayer{id=" + id + ", name='" + name + "', uuid=" + uuid + '}';
+    }
+}
@@ -0,0 +1,21 @@
+package me.hugmanrique.tebexapi.exception;
+
+/**
+ * Thrown instead of sending a request while a {@link me.hugmanrique.tebexapi.http.CircuitBreaker}
+ * considers Tebex to be down
+ */
+public class CircuitOpenException extends TebexException {
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return how many milliseconds are left until the circuit lets a probe request through
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,20 @@
+package me.hugmanrique.tebexapi.exception;
+
+/**
+ * Wraps a {@link TebexException} where a checked exception can't be thrown,
+ * e.g. while iterating or from a callback
+ */
+public class UncheckedTebexException extends RuntimeException {
+    public UncheckedTebexException(String message, TebexException cause) {
+        super(message, cause);
+    }
+
+    public UncheckedTebexException(TebexException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized TebexException getCause() {
+        return (TebexException) super.getCause();
+    }
+}
@@ -0,0 +1,109 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.CircuitOpenException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops sending requests to Tebex while it is down.
+ *
+ * The circuit starts {@link State#CLOSED}. After {@code failureThreshold} failures in a row
+ * it opens, and every request fails right away with a {@link CircuitOpenException} instead of
+ * waiting for a timeout. Once {@code openDuration} has passed a single probe request is let
+ * through: if it succeeds the circuit closes again, otherwise it stays open for another period.
+ *
+ * Used by a {@link RetryingTransport}; share one instance between the transports that talk
+ * to the same API.
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * Creates a new instance of {@link CircuitBreaker}
+     * @param failureThreshold The number of failures in a row that open the circuit
+     * @param openDuration How long the circuit stays open before probing
+     * @param unit The unit of the duration
+     */
+
+    public CircuitBreaker(int failureThreshold, long openDuration, @NotNull TimeUnit unit) {
+        if (failureThreshold < 1 || openDuration <= 0) {
+            throw new IllegalArgumentException("failureThreshold and openDuration must be positive");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    /**
+     * Checks whether a request may be sent. Every allowed request must be followed by a call
+     * to {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}
+     * @throws CircuitOpenException If the circuit is open
+     */
+    public synchronized void acquire() throws CircuitOpenException {
+        if (state == State.CLOSED) {
+            return;
+        }
+
+        long remaining = openNanos - (System.nanoTime() - openedAt);
+        if (remaining > 0 || probing) {
+            throw new CircuitOpenException("Tebex is unavailable, not sending requests", Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining)));
+        }
+
+        state = State.HALF_OPEN;
+        probing = true;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probing = false;
+        }
+    }
+
+    /**
+     * Ends an allowed request that tells nothing about Tebex, e.g. one interrupted while it waited
+     * for the rate limiter. If it was the probe, the next request probes instead
+     */
+    public synchronized void release() {
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public enum State {
+
+        /**
+         * Requests are sent
+         */
+        CLOSED,
+
+        /**
+         * Requests fail right away
+         */
+        OPEN,
+
+        /**
+         * A probe request is checking whether Tebex recovered
+         */
+        HALF_OPEN
+
+    }
+}
@@ -0,0 +1,295 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.metrics.TebexListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Default {@link TebexTransport} built on top of {@link HttpURLConnection}.
+ *
+ * Connections are kept alive and reused by the JDK connection cache as long as every
+ * response is read to the end and closed, which {@link TebexResponse#close()} takes care of.
+ * The size of that cache is set per host with the {@code http.maxConnections} system property
+ * (5 by default). Responses are requested gzip or deflate compressed.
+ *
+ * {@link HttpURLConnection} only speaks HTTP/1.1, so concurrent requests use one pooled
+ * connection each rather than being multiplexed; plug in a different {@link TebexTransport}
+ * to use an HTTP/2 capable client.
+ *
+ * The timeouts given here apply to requests that don't set their own, see
+ * {@link TebexRequest#withTimeouts(int, int)}.
+ */
+public class HttpUrlConnectionTransport implements TebexTransport {
+    public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    public static final int DEFAULT_READ_TIMEOUT = 15000;
+
+    private static final int DRAIN_LIMIT = 64 * 1024;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public HttpUrlConnectionTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Creates a new instance of {@link HttpUrlConnectionTransport}
+     * @param connectTimeout The connect timeout in milliseconds, 0 waits forever
+     * @param readTimeout The read timeout in milliseconds, 0 waits forever
+     */
+
+    public HttpUrlConnectionTransport(int connectTimeout, int readTimeout) {
+        if (connectTimeout < 0 || readTimeout < 0) {
+            throw new IllegalArgumentException("Timeouts cannot be negative");
+        }
+
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    @NotNull
+    @Override
+    public TebexResponse execute(@NotNull TebexRequest request) throws TebexException {
+        TebexListener listener = request.getListener();
+        String endpoint = request.getEndpoint();
+        HttpURLConnection con = null;
+
+        try {
+            long start = System.nanoTime();
+            con = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+            con.setConnectTimeout(request.getConnectTimeout() >= 0 ? request.getConnectTimeout() : connectTimeout);
+            con.setReadTimeout(request.getReadTimeout() >= 0 ? request.getReadTimeout() : readTimeout);
+            con.setRequestMethod(request.getMethod().name());
+            con.setRequestProperty("Accept", "application/json");
+            con.setRequestProperty("Accept-Encoding", "gzip, deflate");
+
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                con.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            byte[] body = request.getBody();
+            if (body != null) {
+                con.setRequestProperty("Content-Type", "application/json");
+                con.setDoOutput(true);
+                con.setFixedLengthStreamingMode(body.length);
+            }
+
+            con.connect();
+            long connected = System.nanoTime();
+            listener.onConnected(endpoint, connected - start);
+
+            if (body != null) {
+                try (OutputStream os = con.getOutputStream()) {
+                    os.write(body);
+                }
+            }
+
+            int status = con.getResponseCode();
+            listener.onResponseHeaders(endpoint, status, System.nanoTime() - connected);
+
+            InputStream raw = status < HttpURLConnection.HTTP_BAD_REQUEST ? con.getInputStream() : con.getErrorStream();
+            if (raw == null) {
+                raw = EmptyInputStream.INSTANCE;
+            }
+
+            CountingInputStream counted = new CountingInputStream(raw, request, body == null ? 0 : body.length);
+            // Bodyless responses (e.g. a 304 to a revalidation) keep the encoding header of the full response
+            boolean bodyless = status == HttpURLConnection.HTTP_NO_CONTENT || status == HttpURLConnection.HTTP_NOT_MODIFIED || status < 200;
+            return new TebexResponse(status, con.getHeaderFields(), decode(counted, bodyless ? null : con.getContentEncoding()));
+        } catch (IOException e) {
+            if (con != null) {
+                con.disconnect();
+            }
+
+            throw new TebexException("Failed to read JSON from URL", e);
+        }
+    }
+
+    private static InputStream decode(InputStream raw, String encoding) throws IOException {
+        InputStream decoded;
+
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            decoded = new LazyInflatingInputStream(raw, true);
+        } else if ("deflate".equalsIgnoreCase(encoding)) {
+            decoded = new LazyInflatingInputStream(raw, false);
+        } else {
+            decoded = raw;
+        }
+
+        return new ReleasingInputStream(decoded, raw);
+    }
+
+    /**
+     * Drains whatever is left of the raw stream before closing it, otherwise the JDK
+     * drops the connection instead of returning it to the keep-alive cache
+     */
+    private static class ReleasingInputStream extends FilterInputStream {
+        private final InputStream raw;
+        private boolean closed;
+
+        ReleasingInputStream(InputStream decoded, InputStream raw) {
+            super(decoded);
+            this.raw = raw;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                byte[] skip = new byte[4096];
+                int drained = 0;
+                int read;
+
+                while (drained < DRAIN_LIMIT && (read = raw.read(skip)) != -1) {
+                    drained += read;
+                }
+            } catch (IOException ignored) {
+                // The connection won't be reused, nothing else to do
+            } finally {
+                in.close();
+                raw.close();
+            }
+        }
+    }
+
+    /**
+     * Creates the decompressing stream on the first read, so an empty body reads as empty
+     * instead of failing because {@link GZIPInputStream} reads its header on creation
+     */
+    private static class LazyInflatingInputStream extends FilterInputStream {
+        private final boolean gzip;
+        private boolean started;
+
+        LazyInflatingInputStream(InputStream raw, boolean gzip) {
+            super(raw);
+            this.gzip = gzip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            start();
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            start();
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            start();
+            return in.skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return started ? in.available() : 0;
+        }
+
+        private void start() throws IOException {
+            if (started) {
+                return;
+            }
+            started = true;
+
+            PushbackInputStream raw = new PushbackInputStream(in, 1);
+            int first = raw.read();
+            if (first == -1) {
+                in = raw;
+                return;
+            }
+
+            raw.unread(first);
+            in = gzip ? new GZIPInputStream(raw, 8192) : new InflaterInputStream(raw);
+        }
+    }
+
+    /**
+     * Counts the bytes read from the network and reports them when closed
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final TebexRequest request;
+        private final long requestBytes;
+        private long count;
+        private boolean closed;
+
+        CountingInputStream(InputStream in, TebexRequest request, long requestBytes) {
+            super(in);
+            this.request = request;
+            this.requestBytes = requestBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = in.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                in.close();
+            } finally {
+                request.getListener().onTransferred(request.getEndpoint(), requestBytes, count);
+            }
+        }
+    }
+
+    private static class EmptyInputStream extends InputStream {
+        static final EmptyInputStream INSTANCE = new EmptyInputStream();
+
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+}
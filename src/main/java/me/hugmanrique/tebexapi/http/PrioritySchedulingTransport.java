@@ -0,0 +1,266 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.metrics.QueueStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link TebexTransport} that schedules requests by their {@link RequestPriority}.
+ *
+ * At most {@code maxInFlight} requests run at once, and each priority class has its own,
+ * lower limit, so background work like a payment export can't take the slots purchase
+ * delivery needs. Requests that can't run wait in one queue per class; when a slot frees up
+ * the most urgent waiting request is started. Every {@code aging} a request waits it gains one
+ * class of urgency, so lower classes are never starved. A request holds its slot until its
+ * response is closed.
+ *
+ * Put it in front of a {@link RateLimitedTransport} so the order in which requests draw
+ * from the shared budget is decided here.
+ */
+public class PrioritySchedulingTransport implements TebexTransport {
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final TebexTransport delegate;
+    private final int maxInFlight;
+    private final int[] classLimits;
+    private final long agingNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] queues;
+    private final int[] inFlight;
+    private int totalInFlight;
+
+    @SuppressWarnings("unchecked")
+    private PrioritySchedulingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxInFlight = builder.maxInFlight;
+        this.agingNanos = builder.agingNanos;
+        this.classLimits = new int[PRIORITIES.length];
+        this.queues = (ArrayDeque<Waiter>[]) new ArrayDeque<?>[PRIORITIES.length];
+        this.inFlight = new int[PRIORITIES.length];
+
+        for (RequestPriority priority : PRIORITIES) {
+            classLimits[priority.ordinal()] = Math.min(maxInFlight, builder.classLimits.get(priority));
+            queues[priority.ordinal()] = new ArrayDeque<>();
+        }
+    }
+
+    public static Builder builder(@NotNull TebexTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    @NotNull
+    @Override
+    public TebexResponse execute(@NotNull TebexRequest request) throws TebexException {
+        int lane = request.getPriority().ordinal();
+        long start = System.nanoTime();
+        acquire(lane);
+        request.getListener().onQueueWait(request.getEndpoint(), QueueStage.SCHEDULER, System.nanoTime() - start);
+
+        TebexResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (TebexException | RuntimeException | Error e) {
+            release(lane);
+            throw e;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        return new TebexResponse(response.getStatusCode(), response.getHeaders(), new FilterInputStream(response.getBody()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        release(lane);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the number of requests of a class that are waiting for a slot
+     */
+    public int getQueued(@NotNull RequestPriority priority) {
+        lock.lock();
+        try {
+            return queues[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests of a class that are running
+     */
+    public int getInFlight(@NotNull RequestPriority priority) {
+        lock.lock();
+        try {
+            return inFlight[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(int lane) throws TebexException {
+        lock.lock();
+        try {
+            if (queues[lane].isEmpty() && hasCapacity(lane)) {
+                start(lane);
+                return;
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition(), System.nanoTime());
+            queues[lane].addLast(waiter);
+
+            try {
+                while (!waiter.granted) {
+                    waiter.condition.await();
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // The slot was handed over right before the interrupt, pass it on
+                    finish(lane);
+                } else {
+                    queues[lane].remove(waiter);
+                }
+
+                Thread.currentThread().interrupt();
+                throw new TebexException("Interrupted while waiting for a request slot", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(int lane) {
+        lock.lock();
+        try {
+            finish(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(int lane) {
+        inFlight[lane]--;
+        totalInFlight--;
+        dispatch();
+    }
+
+    private void dispatch() {
+        long now = System.nanoTime();
+
+        while (totalInFlight < maxInFlight) {
+            int best = -1;
+            long bestScore = Long.MAX_VALUE;
+
+            for (int lane = 0; lane < queues.length; lane++) {
+                Waiter head = queues[lane].peekFirst();
+                if (head == null || !hasCapacity(lane)) {
+                    continue;
+                }
+
+                // Lower is more urgent: the class rank, minus one rank per aging interval waited
+                long score = lane * agingNanos - (now - head.enqueuedAt);
+                if (score < bestScore) {
+                    best = lane;
+                    bestScore = score;
+                }
+            }
+
+            if (best == -1) {
+                return;
+            }
+
+            Waiter waiter = queues[best].pollFirst();
+            start(best);
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    private boolean hasCapacity(int lane) {
+        return totalInFlight < maxInFlight && inFlight[lane] < classLimits[lane];
+    }
+
+    private void start(int lane) {
+        inFlight[lane]++;
+        totalInFlight++;
+    }
+
+    private static final class Waiter {
+        final Condition condition;
+        final long enqueuedAt;
+        boolean granted;
+
+        Waiter(Condition condition, long enqueuedAt) {
+            this.condition = condition;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    public static final class Builder {
+        private final TebexTransport delegate;
+        private final Map<RequestPriority, Integer> classLimits = new EnumMap<>(RequestPriority.class);
+        private int maxInFlight = 8;
+        private long agingNanos = TimeUnit.SECONDS.toNanos(5);
+
+        private Builder(TebexTransport delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+
+            classLimits.put(RequestPriority.INTERACTIVE, 8);
+            classLimits.put(RequestPriority.DELIVERY, 6);
+            classLimits.put(RequestPriority.BACKGROUND, 2);
+        }
+
+        /**
+         * Sets the maximum number of requests running at once, 8 by default
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = positive(maxInFlight);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests of a class running at once.
+         * By default 8 interactive, 6 delivery and 2 background requests
+         */
+        public Builder maxInFlight(@NotNull RequestPriority priority, int maxInFlight) {
+            classLimits.put(Objects.requireNonNull(priority, "priority"), positive(maxInFlight));
+            return this;
+        }
+
+        /**
+         * Sets how long a request waits before it is treated as one class more urgent, 5 seconds by default
+         */
+        public Builder aging(long duration, @NotNull TimeUnit unit) {
+            this.agingNanos = Math.max(1, unit.toNanos(duration));
+            return this;
+        }
+
+        public PrioritySchedulingTransport build() {
+            return new PrioritySchedulingTransport(this);
+        }
+
+        private static int positive(int value) {
+            if (value < 1) {
+                throw new IllegalArgumentException("Limits must be positive");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.metrics.QueueStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TebexTransport} that draws a permit from a {@link RateLimiter} before every request.
+ *
+ * Share the limiter (or this transport) between every {@link me.hugmanrique.tebexapi.TebexApi}
+ * that uses the same secret so they stay within one budget. A 429 Too Many Requests response
+ * pauses the limiter for the Retry-After time and the request is queued again, up to
+ * {@code maxRetries} times, before the 429 is returned to the caller.
+ */
+public class RateLimitedTransport implements TebexTransport {
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = 1000;
+    private static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final TebexTransport delegate;
+    private final RateLimiter limiter;
+    private final int maxRetries;
+
+    public RateLimitedTransport(@NotNull TebexTransport delegate, @NotNull RateLimiter limiter) {
+        this(delegate, limiter, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * Creates a new instance of {@link RateLimitedTransport}
+     * @param delegate The {@link TebexTransport} that sends the requests
+     * @param limiter The {@link RateLimiter} to draw permits from
+     * @param maxRetries How many times a request answered with 429 is sent again
+     */
+
+    public RateLimitedTransport(@NotNull TebexTransport delegate, @NotNull RateLimiter limiter, int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries cannot be negative");
+        }
+
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.limiter = Objects.requireNonNull(limiter, "limiter");
+        this.maxRetries = maxRetries;
+    }
+
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    @NotNull
+    @Override
+    public TebexResponse execute(@NotNull TebexRequest request) throws TebexException {
+        for (int attempt = 0; ; attempt++) {
+            long waited = limiter.acquire();
+            request.getListener().onQueueWait(request.getEndpoint(), QueueStage.RATE_LIMITER, waited);
+
+            TebexResponse response = delegate.execute(request);
+
+            if (response.getStatusCode() != TOO_MANY_REQUESTS) {
+                return response;
+            }
+
+            limiter.pause(retryAfterMillis(response.getHeader("Retry-After")), TimeUnit.MILLISECONDS);
+            if (attempt >= maxRetries) {
+                return response;
+            }
+
+            try {
+                response.close();
+            } catch (IOException ignored) {
+                // The response is discarded anyway
+            }
+        }
+    }
+
+    /**
+     * Parses a Retry-After header, given in seconds or as an HTTP date
+     * @return the delay in milliseconds
+     */
+    static long retryAfterMillis(String header) {
+        if (header == null || header.trim().isEmpty()) {
+            return DEFAULT_RETRY_AFTER_MILLIS;
+        }
+
+        String value = header.trim();
+        long millis;
+
+        try {
+            millis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            try {
+                millis = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - System.currentTimeMillis();
+            } catch (DateTimeParseException ignored) {
+                return DEFAULT_RETRY_AFTER_MILLIS;
+            }
+        }
+
+        return Math.max(0, Math.min(millis, MAX_RETRY_AFTER_MILLIS));
+    }
+}
@@ -0,0 +1,176 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket shared by every request sent through the {@link RateLimitedTransport
+ * RateLimitedTransports} that use it.
+ *
+ * The bucket holds up to {@code burst} permits and refills at {@code permitsPerSecond}.
+ * A request that finds it empty reserves the next permit and sleeps until it is available,
+ * so waiting requests are served in arrival order instead of failing. When Tebex answers
+ * 429 Too Many Requests the bucket is emptied and paused until the Retry-After time has
+ * passed; requests that reserved a permit before the pause reserve a new one, so they are
+ * spread out again instead of all being sent when it ends.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private final double burst;
+
+    private double storedPermits;
+    private long nextFreeNanos;
+    private long pausedUntilNanos;
+    private long pauses;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder rateLimitedResponses = new LongAdder();
+
+    /**
+     * Creates a new instance of {@link RateLimiter}, starting with a full bucket
+     * @param permitsPerSecond The sustained number of requests per second
+     * @param burst The number of requests that can be sent at once after being idle
+     */
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burst = burst;
+        this.storedPermits = burst;
+        this.nextFreeNanos = System.nanoTime();
+        this.pausedUntilNanos = nextFreeNanos;
+    }
+
+    /**
+     * Waits until a request may be sent
+     * @return the time waited in nanoseconds
+     * @throws TebexException If the thread was interrupted while waiting
+     */
+    public long acquire() throws TebexException {
+        long start = System.nanoTime();
+        boolean delayed = false;
+
+        try {
+            while (true) {
+                long reservedAt;
+                long availableAt;
+
+                synchronized (this) {
+                    reservedAt = pauses;
+                    availableAt = reserve(System.nanoTime());
+                }
+
+                delayed |= sleepUntil(availableAt);
+
+                synchronized (this) {
+                    // A pause while sleeping voids the reservation
+                    if (pauses == reservedAt) {
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TebexException("Interrupted while waiting for the rate limit", e);
+        }
+
+        long waited = System.nanoTime() - start;
+        acquired.increment();
+        if (delayed) {
+            throttled.increment();
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+
+        return waited;
+    }
+
+    /**
+     * Empties the bucket and holds back every request for a while, e.g. after a 429 response
+     * @param duration How long to pause
+     * @param unit The unit of the duration
+     */
+    public synchronized void pause(long duration, TimeUnit unit) {
+        long until = System.nanoTime() + unit.toNanos(duration);
+
+        rateLimitedResponses.increment();
+        pauses++;
+        storedPermits = 0;
+        if (until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+        }
+        nextFreeNanos = pausedUntilNanos;
+    }
+
+    private long reserve(long now) {
+        if (now - nextFreeNanos > 0) {
+            storedPermits = Math.min(burst, storedPermits + (double) (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+
+        long availableAt = nextFreeNanos;
+        if (storedPermits >= 1) {
+            storedPermits -= 1;
+        } else {
+            nextFreeNanos += intervalNanos;
+        }
+
+        return availableAt;
+    }
+
+    private static boolean sleepUntil(long deadline) throws InterruptedException {
+        boolean slept = false;
+        long remaining;
+
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            slept = true;
+        }
+
+        return slept;
+    }
+
+    /**
+     * @return the number of requests that were let through
+     */
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return the number of requests that had to wait for a permit
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return the total time requests spent waiting for a permit
+     */
+    public long getTotalWait(TimeUnit unit) {
+        return unit.convert(waitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the longest time a single request waited for a permit
+     */
+    public long getMaxWait(TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of 429 responses that paused this limiter
+     */
+    public long getRateLimitedResponses() {
+        return rateLimitedResponses.sum();
+    }
+}
@@ -0,0 +1,24 @@
+package me.hugmanrique.tebexapi.http;
+
+/**
+ * Scheduling class of a {@link TebexRequest}, from the most to the least urgent.
+ * Only a {@link PrioritySchedulingTransport} takes it into account
+ */
+public enum RequestPriority {
+
+    /**
+     * A player is waiting for the response, e.g. a gift card being created
+     */
+    INTERACTIVE,
+
+    /**
+     * Delivers purchases: queue polling, commands and their acknowledgement
+     */
+    DELIVERY,
+
+    /**
+     * Can wait: listing refreshes, payment history and exports
+     */
+    BACKGROUND
+
+}
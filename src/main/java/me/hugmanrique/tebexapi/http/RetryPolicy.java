@@ -0,0 +1,112 @@
+package me.hugmanrique.tebexapi.http;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a {@link RetryingTransport} retries failed requests. Delays grow exponentially from the
+ * initial backoff up to the maximum, and each one is picked at random between half and all of
+ * that value so clients that failed together don't retry together.
+ */
+public final class RetryPolicy {
+    public static final RetryPolicy DEFAULT = builder().build();
+
+    /**
+     * Never retries
+     */
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double multiplier;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffMillis = builder.initialBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.multiplier = builder.multiplier;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the maximum number of times a request is sent, including the first one
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the delay before sending a request again
+     * @param retry The number of the retry, starting at 1
+     * @return the delay in milliseconds
+     */
+    public long getDelayMillis(int retry) {
+        double backoff = Math.min(maxBackoffMillis, initialBackoffMillis * Math.pow(multiplier, retry - 1));
+        return (long) (backoff / 2 + ThreadLocalRandom.current().nextDouble() * backoff / 2);
+    }
+
+    /**
+     * Checks whether a status code is worth retrying: 408 Request Timeout and the 5xx server errors
+     * except 501 Not Implemented
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 408 || statusCode >= 500 && statusCode != 501;
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private long initialBackoffMillis = 250;
+        private long maxBackoffMillis = TimeUnit.SECONDS.toMillis(10);
+        private double multiplier = 2;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of times a request is sent, including the first one. 3 by default
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be positive");
+            }
+
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the backoff before the first retry and the maximum backoff. By default 250 ms and 10 seconds
+         */
+        public Builder backoff(long initial, long max, @NotNull TimeUnit unit) {
+            if (initial <= 0 || max < initial) {
+                throw new IllegalArgumentException("The backoff must be positive and max can't be lower than initial");
+            }
+
+            this.initialBackoffMillis = unit.toMillis(initial);
+            this.maxBackoffMillis = unit.toMillis(max);
+            return this;
+        }
+
+        /**
+         * Sets how much the backoff grows after every retry, 2 by default
+         */
+        public Builder multiplier(double multiplier) {
+            if (!(multiplier >= 1)) {
+                throw new IllegalArgumentException("multiplier must be at least 1");
+            }
+
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
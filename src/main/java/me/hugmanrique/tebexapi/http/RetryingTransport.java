@@ -0,0 +1,158 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.CircuitOpenException;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TebexTransport} that retries failed GET requests and fails fast while Tebex is down.
+ *
+ * A request failed when the transport threw a {@link TebexException} (e.g. a connect timeout)
+ * or Tebex answered with a status {@link RetryPolicy#isRetryable(int) worth retrying}. Only GET
+ * requests are sent again; other methods return or throw the first failure, since Tebex may
+ * have processed them. Every failure and success is reported to the optional
+ * {@link CircuitBreaker}, which is checked before each attempt. Failures that don't come from
+ * Tebex, i.e. the thread was interrupted (e.g. while waiting for the rate limiter) or a nested
+ * circuit is open, are thrown right away without being retried or reported.
+ *
+ * Make it the outermost transport so backoff delays don't hold a scheduling slot, and every
+ * attempt draws a new permit from the rate limiter.
+ */
+public class RetryingTransport implements TebexTransport {
+    private final TebexTransport delegate;
+    private final RetryPolicy policy;
+    private final CircuitBreaker circuitBreaker;
+
+    private final LongAdder retries = new LongAdder();
+
+    public RetryingTransport(@NotNull TebexTransport delegate, @NotNull RetryPolicy policy) {
+        this(delegate, policy, null);
+    }
+
+    /**
+     * Creates a new instance of {@link RetryingTransport}
+     * @param delegate The {@link TebexTransport} that sends the requests
+     * @param policy The {@link RetryPolicy} of GET requests
+     * @param circuitBreaker The {@link CircuitBreaker} to report to, or null to never fail fast
+     */
+
+    public RetryingTransport(@NotNull TebexTransport delegate, @NotNull RetryPolicy policy, @Nullable CircuitBreaker circuitBreaker) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Nullable
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return the number of requests that were sent again
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @NotNull
+    @Override
+    public TebexResponse execute(@NotNull TebexRequest request) throws TebexException {
+        int maxAttempts = request.getMethod() == TebexRequest.Method.GET ? policy.getMaxAttempts() : 1;
+
+        for (int attempt = 1; ; attempt++) {
+            if (circuitBreaker != null) {
+                circuitBreaker.acquire();
+            }
+
+            TebexResponse response;
+            try {
+                response = delegate.execute(request);
+            } catch (TebexException e) {
+                if (isLocal(e)) {
+                    if (circuitBreaker != null) {
+                        circuitBreaker.release();
+                    }
+                    throw e;
+                }
+
+                reportFailure();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+
+                backoff(request, attempt);
+                continue;
+            } catch (RuntimeException | Error e) {
+                // A bug in the chain, not a sign that Tebex is down
+                if (circuitBreaker != null) {
+                    circuitBreaker.release();
+                }
+                throw e;
+            }
+
+            if (!policy.isRetryable(response.getStatusCode())) {
+                reportSuccess();
+                return response;
+            }
+
+            reportFailure();
+            if (attempt >= maxAttempts) {
+                return response;
+            }
+
+            try {
+                response.close();
+            } catch (IOException ignored) {
+                // The response is discarded anyway
+            }
+            backoff(request, attempt);
+        }
+    }
+
+    private void backoff(TebexRequest request, int attempt) throws TebexException {
+        retries.increment();
+        request.getListener().onRetry(request.getEndpoint(), attempt);
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(policy.getDelayMillis(attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TebexException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    /**
+     * @return whether the request failed without Tebex being involved
+     */
+    private static boolean isLocal(TebexException e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof CircuitOpenException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void reportSuccess() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private void reportFailure() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onFailure();
+        }
+    }
+}
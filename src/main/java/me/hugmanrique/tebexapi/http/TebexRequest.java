@@ -0,0 +1,162 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.metrics.TebexListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable HTTP request sent through a {@link TebexTransport}
+ */
+public final class TebexRequest {
+    private final Method method;
+    private final String url;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final RequestPriority priority;
+    private final String endpoint;
+    private final TebexListener listener;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    private TebexRequest(Method method, String url, Map<String, String> headers, byte[] body, RequestPriority priority,
+                         String endpoint, TebexListener listener, int connectTimeout, int readTimeout) {
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+        this.body = body;
+        this.priority = priority;
+        this.endpoint = endpoint;
+        this.listener = listener;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    private TebexRequest(Method method, String url, byte[] body) {
+        this(method, url, Collections.emptyMap(), body, RequestPriority.INTERACTIVE, null, TebexListener.NONE, -1, -1);
+    }
+
+    public static TebexRequest get(@NotNull String url) {
+        return new TebexRequest(Method.GET, Objects.requireNonNull(url, "url"), null);
+    }
+
+    public static TebexRequest post(@NotNull String url, @NotNull byte[] body) {
+        return new TebexRequest(Method.POST, Objects.requireNonNull(url, "url"), Objects.requireNonNull(body, "body"));
+    }
+
+    public static TebexRequest delete(@NotNull String url) {
+        return new TebexRequest(Method.DELETE, Objects.requireNonNull(url, "url"), null);
+    }
+
+    /**
+     * Creates a copy of this request with an additional header
+     * @param name The header name
+     * @param value The header value
+     * @return A new {@link TebexRequest}
+     */
+    public TebexRequest withHeader(@NotNull String name, @NotNull String value) {
+        Map<String, String> copy = new LinkedHashMap<>(headers);
+        copy.put(name, value);
+
+        return new TebexRequest(method, url, Collections.unmodifiableMap(copy), body, priority, endpoint, listener, connectTimeout, readTimeout);
+    }
+
+    /**
+     * Creates a copy of this request with another priority
+     * @param priority The {@link RequestPriority}, {@link RequestPriority#INTERACTIVE} by default
+     * @return A new {@link TebexRequest}
+     */
+    public TebexRequest withPriority(@NotNull RequestPriority priority) {
+        return new TebexRequest(method, url, headers, body, Objects.requireNonNull(priority, "priority"), endpoint, listener,
+                connectTimeout, readTimeout);
+    }
+
+    /**
+     * Creates a copy of this request that reports to a listener
+     * @param endpoint The name of the endpoint in the events, e.g. {@code GET /queue}
+     * @param listener The {@link TebexListener} every transport reports this request to
+     * @return A new {@link TebexRequest}
+     */
+    public TebexRequest withListener(@NotNull String endpoint, @NotNull TebexListener listener) {
+        return new TebexRequest(method, url, headers, body, priority, Objects.requireNonNull(endpoint, "endpoint"),
+                Objects.requireNonNull(listener, "listener"), connectTimeout, readTimeout);
+    }
+
+    /**
+     * Creates a copy of this request with its own timeouts
+     * @param connectTimeout The connect timeout in milliseconds, or -1 to use the one of the transport
+     * @param readTimeout The read timeout in milliseconds, or -1 to use the one of the transport
+     * @return A new {@link TebexRequest}
+     */
+    public TebexRequest withTimeouts(int connectTimeout, int readTimeout) {
+        if (connectTimeout < -1 || readTimeout < -1) {
+            throw new IllegalArgumentException("Timeouts cannot be negative");
+        }
+
+        return new TebexRequest(method, url, headers, body, priority, endpoint, listener, connectTimeout, readTimeout);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the name of the endpoint reported to the listener, by default the method and URL
+     */
+    public String getEndpoint() {
+        return endpoint != null ? endpoint : method + " " + url;
+    }
+
+    /**
+     * @return the {@link TebexListener} of this request, {@link TebexListener#NONE} by default
+     */
+    public TebexListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return the connect timeout in milliseconds, or -1 if the transport decides
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return the read timeout in milliseconds, or -1 if the transport decides
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * @return the request body or null if this request doesn't have one
+     */
+    @Nullable
+    public byte[] getBody() {
+        return body;
+    }
+
+    public enum Method {
+
+        GET,
+        POST,
+        DELETE
+
+    }
+}
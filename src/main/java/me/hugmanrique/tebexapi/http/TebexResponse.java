@@ -0,0 +1,79 @@
+package me.hugmanrique.tebexapi.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A response returned by a {@link TebexTransport}. The body is already decompressed.
+ *
+ * Closing the response releases the underlying connection so it can be reused by
+ * the next request, so it should always be closed, even when the body isn't read.
+ */
+public final class TebexResponse implements Closeable {
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+
+    public TebexResponse(int statusCode, @NotNull Map<String, List<String>> headers, @NotNull InputStream body) {
+        this.statusCode = statusCode;
+        this.body = body;
+
+        Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            // HttpURLConnection reports the status line with a null key
+            if (entry.getKey() != null) {
+                copy.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.headers = Collections.unmodifiableMap(copy);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return whether the status code is lower than 400
+     */
+    public boolean isSuccessful() {
+        return statusCode < 400;
+    }
+
+    /**
+     * @return all the response headers, with case-insensitive names
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the first value of a header
+     * @param name The case-insensitive header name
+     * @return the value or null if the response doesn't have this header
+     */
+    @Nullable
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return the decompressed response body
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
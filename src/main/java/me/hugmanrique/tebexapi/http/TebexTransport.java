@@ -0,0 +1,22 @@
+package me.hugmanrique.tebexapi.http;
+
+import me.hugmanrique.tebexapi.exception.TebexException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Performs the HTTP requests made by a {@link me.hugmanrique.tebexapi.TebexApi}.
+ *
+ * Implementations must be safe to use from many threads at once, as a single transport
+ * is meant to be shared by every request (and every client) so connections can be reused.
+ */
+public interface TebexTransport {
+
+    /**
+     * Sends a request and waits for the response headers
+     * @param request The request to send
+     * @return The {@link TebexResponse}. The caller must close it once the body has been consumed
+     * @throws TebexException If the request couldn't be sent or the response couldn't be read
+     */
+    @NotNull
+    TebexResponse execute(@NotNull TebexRequest request) throws TebexException;
+}
@@ -0,0 +1,175 @@
+package me.hugmanrique.tebexapi.metrics;
+
+import me.hugmanrique.tebexapi.cache.CacheOutcome;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one endpoint, recorded by a {@link MetricsRegistry}
+ */
+public class EndpointMetrics {
+    private final String endpoint;
+
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final Map<QueueStage, LatencyHistogram> queueWaits = new EnumMap<>(QueueStage.class);
+
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final Map<CacheOutcome, LongAdder> cacheLookups = new EnumMap<>(CacheOutcome.class);
+    private final ConcurrentHashMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+
+        for (QueueStage stage : QueueStage.values()) {
+            queueWaits.put(stage, new LatencyHistogram());
+        }
+        for (CacheOutcome outcome : CacheOutcome.values()) {
+            cacheLookups.put(outcome, new LongAdder());
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the time spent opening connections
+     */
+    public LatencyHistogram getConnect() {
+        return connect;
+    }
+
+    /**
+     * @return the time Tebex took to start answering, once the request was sent
+     */
+    public LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /**
+     * @return the time spent reading and decoding response bodies
+     */
+    public LatencyHistogram getParse() {
+        return parse;
+    }
+
+    /**
+     * @return the time successful calls took from start to end, including waits and retries
+     */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the time requests waited before being sent
+     */
+    public LatencyHistogram getQueueWait(QueueStage stage) {
+        return queueWaits.get(stage);
+    }
+
+    public long getCompleted() {
+        return total.getCount();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    /**
+     * @return the bytes received, before decompression
+     */
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    public long getCacheLookups(CacheOutcome outcome) {
+        return cacheLookups.get(outcome).sum();
+    }
+
+    /**
+     * @return how many responses were received with each status code
+     */
+    public Map<Integer, Long> getStatusCodes() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCodes.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    void recordStatus(int statusCode) {
+        LongAdder count = statusCodes.get(statusCode);
+        if (count == null) {
+            count = statusCodes.computeIfAbsent(statusCode, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordTransfer(long sent, long received) {
+        requestBytes.add(sent);
+        responseBytes.add(received);
+    }
+
+    void recordCacheLookup(CacheOutcome outcome) {
+        cacheLookups.get(outcome).increment();
+    }
+
+    void reset() {
+        connect.reset();
+        timeToFirstByte.reset();
+        parse.reset();
+        total.reset();
+        queueWaits.values().forEach(LatencyHistogram::reset);
+        failures.reset();
+        retries.reset();
+        requestBytes.reset();
+        responseBytes.reset();
+        cacheLookups.values().forEach(LongAdder::reset);
+        statusCodes.clear();
+    }
+
+    /**
+     * @return a one line summary with the p50/p99 latencies in milliseconds
+     */
+    @Override
+    public String toString() {
+        TimeUnit ms = TimeUnit.MILLISECONDS;
+
+        return String.format(Locale.ROOT, "%s: %d ok, %d failed, %d retried | total %.1f/%.1f ms, connect %.1f/%.1f, "
+                        + "ttfb %.1f/%.1f, parse %.1f/%.1f, rate limit wait %.1f/%.1f, scheduler wait %.1f/%.1f | "
+                        + "%d B sent, %d B received | cache %d hit, %d stale, %d miss | status %s",
+                endpoint, getCompleted(), getFailures(), getRetries(),
+                total.getPercentile(50, ms), total.getPercentile(99, ms),
+                connect.getPercentile(50, ms), connect.getPercentile(99, ms),
+                timeToFirstByte.getPercentile(50, ms), timeToFirstByte.getPercentile(99, ms),
+                parse.getPercentile(50, ms), parse.getPercentile(99, ms),
+                getQueueWait(QueueStage.RATE_LIMITER).getPercentile(50, ms), getQueueWait(QueueStage.RATE_LIMITER).getPercentile(99, ms),
+                getQueueWait(QueueStage.SCHEDULER).getPercentile(50, ms), getQueueWait(QueueStage.SCHEDULER).getPercentile(99, ms),
+                getRequestBytes(), getResponseBytes(),
+                getCacheLookups(CacheOutcome.HIT), getCacheLookups(CacheOutcome.STALE_HIT), getCacheLookups(CacheOutcome.MISS),
+                getStatusCodes());
+    }
+}
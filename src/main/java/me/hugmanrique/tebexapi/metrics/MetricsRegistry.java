@@ -0,0 +1,108 @@
+package me.hugmanrique.tebexapi.metrics;
+
+import me.hugmanrique.tebexapi.cache.CacheOutcome;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link TebexListener} that keeps in-memory metrics per endpoint: latency histograms of
+ * connecting, time to first byte, parsing, queue waits and whole calls, plus counters of
+ * bytes, status codes, failures, retries and cache lookups.
+ *
+ * Recording only touches atomic counters, so it can be left on in production. Print the
+ * registry to get a one line summary per endpoint, or read the {@link EndpointMetrics}.
+ */
+public class MetricsRegistry implements TebexListener {
+    private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @return the metrics of every endpoint called so far, by endpoint name
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    /**
+     * @param endpoint The endpoint name, e.g. {@code GET /queue}
+     * @return the metrics of the endpoint or null if it wasn't called yet
+     */
+    @Nullable
+    public EndpointMetrics getEndpoint(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    /**
+     * Clears every recorded value
+     */
+    public void reset() {
+        endpoints.values().forEach(EndpointMetrics::reset);
+    }
+
+    private EndpointMetrics metrics(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            metrics = endpoints.computeIfAbsent(endpoint, EndpointMetrics::new);
+        }
+        return metrics;
+    }
+
+    @Override
+    public void onConnected(String endpoint, long connectNanos) {
+        metrics(endpoint).getConnect().record(connectNanos);
+    }
+
+    @Override
+    public void onResponseHeaders(String endpoint, int statusCode, long timeToFirstByteNanos) {
+        EndpointMetrics metrics = metrics(endpoint);
+        metrics.getTimeToFirstByte().record(timeToFirstByteNanos);
+        metrics.recordStatus(statusCode);
+    }
+
+    @Override
+    public void onTransferred(String endpoint, long requestBytes, long responseBytes) {
+        metrics(endpoint).recordTransfer(requestBytes, responseBytes);
+    }
+
+    @Override
+    public void onParsed(String endpoint, long parseNanos) {
+        metrics(endpoint).getParse().record(parseNanos);
+    }
+
+    @Override
+    public void onCompleted(String endpoint, long totalNanos) {
+        metrics(endpoint).getTotal().record(totalNanos);
+    }
+
+    @Override
+    public void onFailure(String endpoint, TebexException error) {
+        metrics(endpoint).recordFailure();
+    }
+
+    @Override
+    public void onRetry(String endpoint, int retry) {
+        metrics(endpoint).recordRetry();
+    }
+
+    @Override
+    public void onCacheLookup(String endpoint, CacheOutcome outcome) {
+        metrics(endpoint).recordCacheLookup(outcome);
+    }
+
+    @Override
+    public void onQueueWait(String endpoint, QueueStage stage, long waitNanos) {
+        metrics(endpoint).getQueueWait(stage).record(waitNanos);
+    }
+
+    @Override
+    public String toString() {
+        return endpoints.values().stream()
+                .map(EndpointMetrics::toString)
+                .sorted()
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
@@ -0,0 +1,18 @@
+package me.hugmanrique.tebexapi.metrics;
+
+/**
+ * What a request waited for before being sent
+ */
+public enum QueueStage {
+
+    /**
+     * A permit of the {@link me.hugmanrique.tebexapi.http.RateLimiter}
+     */
+    RATE_LIMITER,
+
+    /**
+     * A slot of the {@link me.hugmanrique.tebexapi.http.PrioritySchedulingTransport}
+     */
+    SCHEDULER
+
+}
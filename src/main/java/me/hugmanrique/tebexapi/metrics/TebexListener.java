@@ -0,0 +1,95 @@
+package me.hugmanrique.tebexapi.metrics;
+
+import me.hugmanrique.tebexapi.cache.CacheOutcome;
+import me.hugmanrique.tebexapi.exception.TebexException;
+
+import java.util.Collection;
+
+/**
+ * Receives timings and counters of the requests made by a {@link me.hugmanrique.tebexapi.TebexApi},
+ * see {@link me.hugmanrique.tebexapi.TebexApi#setListener(TebexListener)}.
+ *
+ * Every event names the endpoint it belongs to, e.g. {@code GET /queue}. The methods are called
+ * on the thread making the request, so they must be quick and must not throw.
+ * {@link MetricsRegistry} is a ready to use implementation.
+ */
+public interface TebexListener {
+
+    /**
+     * A listener that ignores every event
+     */
+    TebexListener NONE = new TebexListener() {
+    };
+
+    /**
+     * Called once the connection to Tebex is open, which takes almost no time when a kept-alive one is reused
+     * @param connectNanos The time spent connecting
+     */
+    default void onConnected(String endpoint, long connectNanos) {
+    }
+
+    /**
+     * Called once the status line and headers of the response arrived
+     * @param timeToFirstByteNanos The time from sending the request until the response started
+     */
+    default void onResponseHeaders(String endpoint, int statusCode, long timeToFirstByteNanos) {
+    }
+
+    /**
+     * Called when a response is closed
+     * @param requestBytes The size of the request body
+     * @param responseBytes The bytes of the response body read from the network, before decompression
+     */
+    default void onTransferred(String endpoint, long requestBytes, long responseBytes) {
+    }
+
+    /**
+     * Called once a response was read and decoded
+     * @param parseNanos The time spent reading and decoding the body
+     */
+    default void onParsed(String endpoint, long parseNanos) {
+    }
+
+    /**
+     * Called when a request succeeded
+     * @param totalNanos The time from the call until the decoded result was ready, including every wait and retry
+     */
+    default void onCompleted(String endpoint, long totalNanos) {
+    }
+
+    /**
+     * Called when a request failed
+     */
+    default void onFailure(String endpoint, TebexException error) {
+    }
+
+    /**
+     * Called when command ids are given up on without being deleted from the queue, e.g. by a
+     * {@link me.hugmanrique.tebexapi.queue.CommandAcknowledger} once a batch ran out of retries.
+     * Their commands will be delivered again
+     * @param error Why the ids couldn't be deleted
+     */
+    default void onCommandsDropped(String endpoint, Collection<Integer> commandIds, Throwable error) {
+    }
+
+    /**
+     * Called before a failed request is sent again
+     * @param retry The number of the retry, starting at 1
+     */
+    default void onRetry(String endpoint, int retry) {
+    }
+
+    /**
+     * Called when a read was looked up in the {@link me.hugmanrique.tebexapi.cache.ResponseCache}
+     */
+    default void onCacheLookup(String endpoint, CacheOutcome outcome) {
+    }
+
+    /**
+     * Called when a request waited before being sent
+     * @param stage What the request waited for
+     * @param waitNanos The time waited, 0 when it went through right away
+     */
+    default void onQueueWait(String endpoint, QueueStage stage, long waitNanos) {
+    }
+}
@@ -0,0 +1,137 @@
+package me.hugmanrique.tebexapi.paging;
+
+import me.hugmanrique.tebexapi.data.PagedResult;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.exception.UncheckedTebexException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over the results of every page of a paged endpoint, fetching the pages lazily.
+ *
+ * After the first page is received, up to {@code prefetch} of the following pages are requested
+ * at once, so they download while the current page is consumed. When the consumer stops pulling
+ * results no further pages are requested, and {@link #close()} cancels the ones still pending.
+ *
+ * Tebex pages newest first, so results created during the iteration may shift older
+ * results into the next page and return them twice. This iterator isn't thread-safe.
+ * @param <T> The type of the results
+ */
+public class PrefetchingPageIterator<T> implements Iterator<T>, AutoCloseable {
+    private final IntFunction<CompletableFuture<PagedResult<T>>> fetcher;
+    private final int prefetch;
+
+    private final ArrayDeque<CompletableFuture<PagedResult<T>>> pending = new ArrayDeque<>();
+    private int nextPage;
+    private int lastPage = Integer.MAX_VALUE;
+    private boolean started;
+    private boolean closed;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    /**
+     * Creates a new instance of {@link PrefetchingPageIterator}
+     * @param fetcher Requests a page given its number
+     * @param firstPage The number of the first page to return
+     * @param prefetch The maximum number of pages requested at once
+     */
+    public PrefetchingPageIterator(@NotNull IntFunction<CompletableFuture<PagedResult<T>>> fetcher, int firstPage, int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be positive");
+        }
+
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher");
+        this.nextPage = firstPage;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed) {
+                return false;
+            }
+
+            if (!started) {
+                // The number of pages is unknown until the first one arrives
+                started = true;
+                request();
+            }
+
+            CompletableFuture<PagedResult<T>> future = pending.poll();
+            if (future == null) {
+                return false;
+            }
+
+            PagedResult<T> page = await(future);
+            lastPage = page.getTotalPages();
+
+            while (pending.size() < prefetch && nextPage <= lastPage) {
+                request();
+            }
+
+            current = page.getResults().iterator();
+        }
+
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return current.next();
+    }
+
+    /**
+     * Cancels the pages that were requested but not consumed yet
+     */
+    @Override
+    public void close() {
+        closed = true;
+        current = Collections.emptyIterator();
+
+        CompletableFuture<PagedResult<T>> future;
+        while ((future = pending.poll()) != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * @return a sequential {@link Stream} over the remaining results, closing it closes this iterator
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    private void request() {
+        pending.add(fetcher.apply(nextPage++));
+    }
+
+    private PagedResult<T> await(CompletableFuture<PagedResult<T>> future) {
+        try {
+            return future.join();
+        } catch (CancellationException | CompletionException e) {
+            close();
+
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof TebexException) {
+                throw new UncheckedTebexException("Failed to fetch a page", (TebexException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package me.hugmanrique.tebexapi.queue;
+
+import me.hugmanrique.tebexapi.TebexAsyncApi;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Buffers the ids of executed commands and removes them from the queue in batches.
+ *
+ * Acknowledged ids are coalesced (acknowledging an id twice sends it once) and sent in
+ * {@code DELETE /queue} requests of up to {@code batchSize} ids, one request at a time.
+ * A batch is sent as soon as it is full, or {@code maxDelay} after the first id of a
+ * partial batch arrived. A failed batch is retried with a growing delay, up to {@code maxRetries}
+ * times; then its ids are dropped and reported to
+ * {@link me.hugmanrique.tebexapi.metrics.TebexListener#onCommandsDropped the listener} of the API,
+ * and the pending {@link #flush()} futures complete exceptionally. {@link #close()} sends
+ * everything that is still buffered.
+ */
+public class CommandAcknowledger implements AutoCloseable {
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String ENDPOINT = "DELETE /queue";
+
+    private final TebexAsyncApi api;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final int maxRetries;
+    private final long closeTimeoutMillis;
+
+    private final Object lock = new Object();
+    private final Set<Integer> pending = new LinkedHashSet<>();
+    private final List<CompletableFuture<Void>> flushes = new ArrayList<>();
+
+    private ScheduledFuture<?> timer;
+    private boolean flushRequested;
+    private boolean sending;
+    private boolean closed;
+    private List<Integer> retrying;
+    private int retries;
+
+    private long acknowledged;
+    private long requests;
+
+    private CommandAcknowledger(Builder builder) {
+        this.api = builder.api;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Tebex Command Acknowledger");
+            thread.setDaemon(true);
+            return thread;
+        }) : builder.scheduler;
+        this.batchSize = builder.batchSize;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.maxRetries = builder.maxRetries;
+        this.closeTimeoutMillis = builder.closeTimeoutMillis;
+    }
+
+    public static Builder builder(@NotNull TebexAsyncApi api) {
+        return new Builder(api);
+    }
+
+    /**
+     * Marks a command as executed
+     * @param commandId The id of the command
+     * @throws IllegalStateException If the acknowledger was closed
+     */
+    public void acknowledge(int commandId) {
+        acknowledge(Collections.singleton(commandId));
+    }
+
+    /**
+     * Marks commands as executed
+     * @param commandIds The ids of the commands
+     * @throws IllegalStateException If the acknowledger was closed
+     */
+    public void acknowledge(@NotNull Collection<Integer> commandIds) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("The acknowledger is closed");
+            }
+
+            pending.addAll(commandIds);
+        }
+
+        drain();
+    }
+
+    /**
+     * Sends every buffered id without waiting for the batch to fill
+     * @return a future completed once nothing is buffered nor being sent, or exceptionally
+     * if a batch is dropped before that
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            if (pending.isEmpty() && retrying == null && !sending) {
+                future.complete(null);
+                return future;
+            }
+
+            flushes.add(future);
+            flushRequested = true;
+            if (retrying == null) {
+                cancelTimer();
+            }
+        }
+
+        drain();
+        return future;
+    }
+
+    /**
+     * @return the number of ids waiting to be sent
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size() + (retrying == null ? 0 : retrying.size());
+        }
+    }
+
+    /**
+     * @return the number of ids Tebex confirmed as deleted
+     */
+    public long getAcknowledgedCount() {
+        synchronized (lock) {
+            return acknowledged;
+        }
+    }
+
+    /**
+     * @return the number of successful delete requests
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+
+    /**
+     * Stops accepting ids and waits up to the close timeout for the buffered ones to be sent.
+     * The ids that couldn't be sent are reported to the listener of the API, their commands
+     * will be delivered again
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+        }
+
+        CompletableFuture<Void> flushed = flush();
+
+        Throwable error = null;
+        try {
+            flushed.get(closeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            error = e;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The dropped batch was already reported, but later ones may still be buffered
+            error = e.getCause();
+        } catch (TimeoutException e) {
+            error = e;
+        } finally {
+            List<Integer> unsent = new ArrayList<>();
+            synchronized (lock) {
+                cancelTimer();
+
+                if (retrying != null) {
+                    unsent.addAll(retrying);
+                    retrying = null;
+                }
+                unsent.addAll(pending);
+                pending.clear();
+            }
+
+            if (ownsScheduler) {
+                scheduler.shutdown();
+            }
+            if (!unsent.isEmpty()) {
+                dropped(unsent, error);
+            }
+        }
+    }
+
+    /**
+     * Sends batches until there is nothing to send, a request is in flight or a timer is pending.
+     * Must be called without holding the lock, flush futures complete on the calling thread
+     */
+    private void drain() {
+        while (true) {
+            List<Integer> batch;
+            synchronized (lock) {
+                batch = nextBatch();
+                if (batch == null) {
+                    return;
+                }
+
+                sending = true;
+            }
+
+            CompletableFuture<Void> deleted = api.deleteCommands(batch);
+
+            // Requests that finish right away, e.g. on a direct executor or rejected by it, are
+            // handled in this loop instead of recursing once per batch
+            if (!deleted.isDone()) {
+                deleted.whenComplete((ignored, error) -> {
+                    complete(batch, error);
+                    drain();
+                });
+                return;
+            }
+
+            Throwable error = null;
+            try {
+                deleted.join();
+            } catch (CompletionException | CancellationException e) {
+                error = e;
+            }
+
+            complete(batch, error);
+        }
+    }
+
+    /**
+     * @return the ids to send next, or null if nothing should be sent now
+     */
+    private List<Integer> nextBatch() {
+        if (sending) {
+            return null;
+        }
+
+        if (retrying != null) {
+            // Wait for the retry delay
+            return timer == null ? retrying : null;
+        }
+
+        if (pending.isEmpty()) {
+            return null;
+        }
+
+        if (!flushRequested && pending.size() < batchSize) {
+            if (timer == null) {
+                schedule(maxDelayMillis);
+            }
+            return null;
+        }
+
+        cancelTimer();
+
+        List<Integer> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<Integer> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    private void complete(List<Integer> batch, Throwable error) {
+        List<CompletableFuture<Void>> completed = null;
+        Throwable dropError = null;
+
+        synchronized (lock) {
+            sending = false;
+
+            if (error != null) {
+                cancelTimer();
+                if (retries < maxRetries && schedule(Math.min(maxDelayMillis << Math.min(retries + 1, 16), MAX_RETRY_DELAY_MILLIS))) {
+                    retrying = batch;
+                    retries++;
+                    return;
+                }
+
+                // Out of retries, e.g. the ids don't exist anymore. Move on to the next batch
+                dropError = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                retrying = null;
+                retries = 0;
+                flushRequested = false;
+                completed = new ArrayList<>(flushes);
+                flushes.clear();
+            } else {
+                retrying = null;
+                retries = 0;
+                acknowledged += batch.size();
+                requests++;
+
+                if (pending.isEmpty()) {
+                    flushRequested = false;
+                    completed = new ArrayList<>(flushes);
+                    flushes.clear();
+                }
+            }
+        }
+
+        if (completed != null) {
+            for (CompletableFuture<Void> flush : completed) {
+                if (dropError != null) {
+                    flush.completeExceptionally(dropError);
+                } else {
+                    flush.complete(null);
+                }
+            }
+        }
+        if (dropError != null) {
+            dropped(batch, dropError);
+        }
+    }
+
+    private void dropped(List<Integer> commandIds, Throwable error) {
+        api.getApi().getListener().onCommandsDropped(ENDPOINT, Collections.unmodifiableList(commandIds), error);
+    }
+
+    /**
+     * @return false if the scheduler is shut down
+     */
+    private boolean schedule(long delayMillis) {
+        try {
+            timer = scheduler.schedule(() -> {
+                synchronized (lock) {
+                    timer = null;
+                    flushRequested = true;
+                }
+                drain();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            timer = null;
+            return false;
+        }
+    }
+
+    private void cancelTimer() {
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    public static final class Builder {
+        private final TebexAsyncApi api;
+        private ScheduledExecutorService scheduler;
+        private int batchSize = 50;
+        private long maxDelayMillis = 1000;
+        private int maxRetries = 5;
+        private long closeTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+
+        private Builder(TebexAsyncApi api) {
+            this.api = Objects.requireNonNull(api, "api");
+        }
+
+        /**
+         * Sets the scheduler of the batch timer. By default a single daemon thread, shut down on close
+         */
+        public Builder scheduler(@NotNull ScheduledExecutorService scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of ids per request, 50 by default
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long an id may wait for its batch to fill, 1 second by default
+         */
+        public Builder maxDelay(long delay, @NotNull TimeUnit unit) {
+            this.maxDelayMillis = Math.max(1, unit.toMillis(delay));
+            return this;
+        }
+
+        /**
+         * Sets how many times a failed batch is sent again before its ids are dropped, 5 by default.
+         * The delay doubles with every retry, starting at twice the maximum batch delay
+         */
+        public Builder maxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries can't be negative");
+            }
+
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets how long {@link CommandAcknowledger#close()} waits for the buffered ids to be sent, 10 seconds by default
+         */
+        public Builder closeTimeout(long timeout, @NotNull TimeUnit unit) {
+            this.closeTimeoutMillis = Math.max(0, unit.toMillis(timeout));
+            return this;
+        }
+
+        public CommandAcknowledger build() {
+            return new CommandAcknowledger(this);
+        }
+    }
+}
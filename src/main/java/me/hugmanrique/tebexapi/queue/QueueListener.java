@@ -0,0 +1,45 @@
+package me.hugmanrique.tebexapi.queue;
+
+import me.hugmanrique.tebexapi.data.OfflineCommand;
+import me.hugmanrique.tebexapi.data.OnlineCommand;
+import me.hugmanrique.tebexapi.data.PlayerQueue;
+import me.hugmanrique.tebexapi.data.QueuedPlayer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receives what a {@link QueuePoller} finds in the command queue. The methods are called
+ * on the poller's callback executor, in the order the responses were received
+ */
+public interface QueueListener {
+
+    /**
+     * Called for every page of the queue that was fetched
+     * @param queue The {@link PlayerQueue} page
+     */
+    default void onQueue(PlayerQueue queue) {
+    }
+
+    /**
+     * Called with the online commands of the players due in a page of the queue
+     * @param commands The commands of each player that has any, in queue order
+     */
+    default void onOnlineCommands(Map<QueuedPlayer, List<OnlineCommand>> commands) {
+    }
+
+    /**
+     * Called when there are offline commands to execute
+     * @param commands The non-empty {@link Set} of {@link OfflineCommand OfflineCommands}
+     */
+    default void onOfflineCommands(Set<OfflineCommand> commands) {
+    }
+
+    /**
+     * Called when a poll failed. The poller backs off and tries again
+     * @param error The cause, usually a {@link me.hugmanrique.tebexapi.exception.TebexException}
+     */
+    default void onError(Throwable error) {
+    }
+}
@@ -0,0 +1,341 @@
+package me.hugmanrique.tebexapi.queue;
+
+import me.hugmanrique.tebexapi.TebexAsyncApi;
+import me.hugmanrique.tebexapi.data.OfflineCommand;
+import me.hugmanrique.tebexapi.data.OnlineCommand;
+import me.hugmanrique.tebexapi.data.QueuedPlayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Polls the command queue of a store and hands what it finds to a {@link QueueListener}.
+ *
+ * Every poll fetches {@code /queue}, following {@code more} across pages, the online commands
+ * of the players due in each page and the offline commands when the queue asks to execute them.
+ * The next poll is scheduled after {@code next_check}, which is never undercut: while the queue
+ * has work the poller keeps that pace, and every idle poll in a row multiplies the delay up to
+ * the idle interval. Failed polls back off exponentially up to the maximum backoff.
+ *
+ * Only one poll runs at a time. Create it with {@link #builder(TebexAsyncApi, QueueListener)}
+ * and call {@link #start()}.
+ */
+public class QueuePoller implements AutoCloseable {
+    private static final int MAX_PAGES = 64;
+
+    private final TebexAsyncApi api;
+    private final QueueListener listener;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final Executor callbackExecutor;
+    private final int onlineCommandParallelism;
+
+    private final long defaultIntervalMillis;
+    private final long maxIdleIntervalMillis;
+    private final double idleMultiplier;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private volatile boolean started;
+    private volatile boolean closed;
+    private volatile ScheduledFuture<?> scheduled;
+
+    private volatile int idlePolls;
+    private volatile int failures;
+
+    private QueuePoller(Builder builder) {
+        this.api = builder.api;
+        this.listener = builder.listener;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Tebex Queue Poller");
+            thread.setDaemon(true);
+            return thread;
+        }) : builder.scheduler;
+        this.callbackExecutor = builder.callbackExecutor;
+        this.onlineCommandParallelism = builder.onlineCommandParallelism;
+        this.defaultIntervalMillis = builder.defaultIntervalMillis;
+        this.maxIdleIntervalMillis = builder.maxIdleIntervalMillis;
+        this.idleMultiplier = builder.idleMultiplier;
+        this.minBackoffMillis = builder.minBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+    }
+
+    public static Builder builder(@NotNull TebexAsyncApi api, @NotNull QueueListener listener) {
+        return new Builder(api, listener);
+    }
+
+    /**
+     * Starts polling right away
+     * @throws IllegalStateException If the poller was already started or closed
+     */
+    public synchronized void start() {
+        if (closed) {
+            throw new IllegalStateException("The poller is closed");
+        }
+        if (started) {
+            throw new IllegalStateException("The poller was already started");
+        }
+
+        started = true;
+        schedule(0);
+    }
+
+    /**
+     * Stops polling and shuts down the scheduler if the poller created it. A poll that is already
+     * running finishes, but its results aren't delivered
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+
+        ScheduledFuture<?> future = scheduled;
+        if (future != null) {
+            future.cancel(false);
+        }
+
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    public boolean isRunning() {
+        return started && !closed;
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            scheduled = scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            closed = true;
+            deliver(() -> listener.onError(e));
+        }
+    }
+
+    private void poll() {
+        if (closed) {
+            return;
+        }
+
+        Cycle cycle = new Cycle();
+
+        pollQueue(1, cycle)
+                .thenCompose(this::pollOfflineCommands)
+                .whenComplete((result, error) -> {
+                    if (closed) {
+                        return;
+                    }
+
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        deliver(() -> listener.onError(cause));
+                        schedule(nextBackoff());
+                    } else {
+                        failures = 0;
+                        schedule(nextDelay(result));
+                    }
+                });
+    }
+
+    private CompletableFuture<Cycle> pollQueue(int page, Cycle cycle) {
+        return api.getQueue(page).thenCompose(queue -> {
+            if (page == 1) {
+                cycle.nextCheckSeconds = queue.getNextCheck();
+                cycle.executeOffline = queue.isExecuteOffline();
+            }
+
+            cycle.active |= queue.isMore() || !queue.getPlayers().isEmpty();
+            deliver(() -> listener.onQueue(queue));
+
+            return pollOnlineCommands(queue.getPlayers()).thenCompose(ignored -> {
+                if (queue.isMore() && page < MAX_PAGES && !closed) {
+                    return pollQueue(page + 1, cycle);
+                }
+                return CompletableFuture.completedFuture(cycle);
+            });
+        });
+    }
+
+    private CompletableFuture<?> pollOnlineCommands(List<QueuedPlayer> players) {
+        if (players.isEmpty() || closed) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return api.getOnlineCommands(players, onlineCommandParallelism).thenAccept(commands -> {
+            Map<QueuedPlayer, List<OnlineCommand>> due = new LinkedHashMap<>();
+            commands.forEach((player, playerCommands) -> {
+                if (playerCommands != null && !playerCommands.isEmpty()) {
+                    due.put(player, playerCommands);
+                }
+            });
+
+            if (!due.isEmpty()) {
+                Map<QueuedPlayer, List<OnlineCommand>> delivered = Collections.unmodifiableMap(due);
+                deliver(() -> listener.onOnlineCommands(delivered));
+            }
+        });
+    }
+
+    private CompletableFuture<Cycle> pollOfflineCommands(Cycle cycle) {
+        if (!cycle.executeOffline || closed) {
+            return CompletableFuture.completedFuture(cycle);
+        }
+
+        return api.getOfflineCommands().thenApply(commands -> {
+            if (commands != null && !commands.isEmpty()) {
+                Set<OfflineCommand> delivered = Collections.unmodifiableSet(commands);
+                cycle.active = true;
+                deliver(() -> listener.onOfflineCommands(delivered));
+            }
+
+            return cycle;
+        });
+    }
+
+    private long nextDelay(Cycle cycle) {
+        long nextCheck = cycle.nextCheckSeconds > 0 ? TimeUnit.SECONDS.toMillis(cycle.nextCheckSeconds) : defaultIntervalMillis;
+
+        if (cycle.active) {
+            idlePolls = 0;
+            return nextCheck;
+        }
+
+        int idle = ++idlePolls;
+        double delay = nextCheck * Math.pow(idleMultiplier, idle);
+
+        return (long) Math.max(nextCheck, Math.min(delay, maxIdleIntervalMillis));
+    }
+
+    private long nextBackoff() {
+        int attempt = Math.min(++failures, 30);
+        long delay = minBackoffMillis << Math.min(attempt - 1, 20);
+
+        return Math.min(Math.max(delay, minBackoffMillis), maxBackoffMillis);
+    }
+
+    private void deliver(Runnable callback) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            callbackExecutor.execute(() -> {
+                try {
+                    callback.run();
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static final class Cycle {
+        int nextCheckSeconds;
+        boolean executeOffline;
+        boolean active;
+    }
+
+    public static final class Builder {
+        private final TebexAsyncApi api;
+        private final QueueListener listener;
+        private ScheduledExecutorService scheduler;
+        private Executor callbackExecutor;
+        private int onlineCommandParallelism = 8;
+
+        private long defaultIntervalMillis = TimeUnit.SECONDS.toMillis(60);
+        private long maxIdleIntervalMillis = TimeUnit.MINUTES.toMillis(5);
+        private double idleMultiplier = 1.5;
+        private long minBackoffMillis = TimeUnit.SECONDS.toMillis(5);
+        private long maxBackoffMillis = TimeUnit.MINUTES.toMillis(5);
+
+        private Builder(TebexAsyncApi api, QueueListener listener) {
+            this.api = Objects.requireNonNull(api, "api");
+            this.listener = Objects.requireNonNull(listener, "listener");
+        }
+
+        /**
+         * Sets the scheduler that times the polls, which {@link QueuePoller#close()} leaves running.
+         * By default a single daemon thread of the poller, shut down on close
+         */
+        public Builder scheduler(@NotNull ScheduledExecutorService scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        /**
+         * Sets the executor the {@link QueueListener} is called on, e.g. the server main thread.
+         * By default the listener is called on the thread that received the response
+         */
+        public Builder callbackExecutor(@NotNull Executor callbackExecutor) {
+            this.callbackExecutor = Objects.requireNonNull(callbackExecutor, "callbackExecutor");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of online command requests in flight, 8 by default
+         */
+        public Builder onlineCommandParallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+
+            this.onlineCommandParallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the interval used when Tebex doesn't send a {@code next_check}, 60 seconds by default
+         */
+        public Builder defaultInterval(long interval, @NotNull TimeUnit unit) {
+            this.defaultIntervalMillis = positive(unit.toMillis(interval));
+            return this;
+        }
+
+        /**
+         * Sets how slow polling gets while the queue stays empty. The delay is multiplied by
+         * {@code multiplier} after every idle poll, from {@code next_check} up to {@code maxInterval}.
+         * By default 1.5 and 5 minutes
+         */
+        public Builder idleSlowdown(double multiplier, long maxInterval, @NotNull TimeUnit unit) {
+            if (multiplier < 1) {
+                throw new IllegalArgumentException("multiplier must be at least 1");
+            }
+
+            this.idleMultiplier = multiplier;
+            this.maxIdleIntervalMillis = positive(unit.toMillis(maxInterval));
+            return this;
+        }
+
+        /**
+         * Sets the delay after a failed poll, doubling with every failure in a row.
+         * By default from 5 seconds to 5 minutes
+         */
+        public Builder backoff(long min, long max, @NotNull TimeUnit unit) {
+            this.minBackoffMillis = positive(unit.toMillis(min));
+            this.maxBackoffMillis = Math.max(minBackoffMillis, unit.toMillis(max));
+            return this;
+        }
+
+        public QueuePoller build() {
+            if (callbackExecutor == null) {
+                callbackExecutor = Runnable::run;
+            }
+
+            return new QueuePoller(this);
+        }
+
+        private static long positive(long millis) {
+            if (millis <= 0) {
+                throw new IllegalArgumentException("Durations must be positive");
+            }
+            return millis;
+        }
+    }
+}
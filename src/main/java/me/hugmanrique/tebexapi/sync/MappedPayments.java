@@ -0,0 +1,94 @@
+package me.hugmanrique.tebexapi.sync;
+
+import me.hugmanrique.tebexapi.data.Payment;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A memory-mapped, read-only view of the payments of a {@link PaymentStore}.
+ * Payments are decoded on access, in ascending id order. Safe to use from many threads.
+ *
+ * @see PaymentStore#map()
+ */
+public class MappedPayments implements Iterable<Payment> {
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+
+    MappedPayments(ByteBuffer buffer, int[] offsets) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Decodes a payment
+     * @param index The index of the payment, 0 being the oldest one
+     * @return the decoded {@link Payment}
+     */
+    public Payment get(int index) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(offsets[index] + 8);
+
+        return PaymentStore.decode(payload);
+    }
+
+    /**
+     * Gets the id of a payment without decoding the rest of it
+     * @param index The index of the payment, 0 being the oldest one
+     * @return the payment id
+     */
+    public int getId(int index) {
+        return buffer.getInt(offsets[index] + 8);
+    }
+
+    /**
+     * Finds a payment by id with a binary search
+     * @param id The payment id
+     * @return the index of the payment or -1 if it isn't stored
+     */
+    public int indexOf(int id) {
+        int low = 0;
+        int high = offsets.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = getId(mid);
+
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public Iterator<Payment> iterator() {
+        return new Iterator<Payment>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < offsets.length;
+            }
+
+            @Override
+            public Payment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return get(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,384 @@
+package me.hugmanrique.tebexapi.sync;
+
+import me.hugmanrique.tebexapi.data.PackageMap;
+import me.hugmanrique.tebexapi.data.Payment;
+import me.hugmanrique.tebexapi.utils.TebexInterner;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary file of {@link Payment Payments}, written by {@link PaymentSync}.
+ *
+ * The file starts with an 8 byte header followed by one record per payment:
+ * the payload length, the CRC32 of the payload and the payload itself. When the file is
+ * opened every record is verified and a torn or corrupt tail (e.g. from a crash in the
+ * middle of an append) is truncated, so the store always reopens in a consistent state.
+ *
+ * Payments are appended in ascending id order, so the highest stored id is the high-water
+ * mark the next sync continues from. Appends are serialized; reads can run concurrently
+ * with them and see the payments stored when the read started.
+ */
+public class PaymentStore implements Closeable {
+    private static final int MAGIC = 0x54425850; // "TBXP"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final Payment.Status[] STATUSES = Payment.Status.values();
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private volatile long size;
+    private volatile int count;
+    private volatile int highWaterMark;
+
+    private PaymentStore(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a store, creating the file if it doesn't exist
+     * @param path The path of the store file
+     * @return the opened {@link PaymentStore}
+     * @throws IOException If the file can't be opened or isn't a payment store
+     */
+    public static PaymentStore open(@NotNull Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            PaymentStore store = new PaymentStore(path, channel);
+            store.recover();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).flip();
+            writeFully(header, 0);
+            channel.force(true);
+            size = HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException(path + " is not a payment store");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported payment store version " + version);
+        }
+
+        int[] recovered = new int[2];
+        long valid = scan(channel.size(), payload -> {
+            recovered[0]++;
+            recovered[1] = Math.max(recovered[1], payload.getInt(payload.position()));
+        });
+
+        if (valid < channel.size()) {
+            channel.truncate(valid);
+            channel.force(true);
+        }
+
+        size = valid;
+        count = recovered[0];
+        highWaterMark = recovered[1];
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the number of stored payments
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the highest stored payment id, or 0 if the store is empty
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Appends payments and flushes them to disk. They must be newer than {@link #getHighWaterMark()},
+     * and are stored in ascending id order
+     * @param payments The payments to append
+     * @throws IllegalArgumentException If a payment isn't newer than the high-water mark
+     * @throws IOException If the payments couldn't be written
+     */
+    public synchronized void append(@NotNull Collection<Payment> payments) throws IOException {
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        List<Payment> sorted = new ArrayList<>(payments);
+        sorted.sort(Comparator.comparingInt(Payment::getId));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(sorted.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(128);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        CRC32 crc = new CRC32();
+        int last = highWaterMark;
+
+        for (Payment payment : sorted) {
+            if (payment.getId() <= last) {
+                throw new IllegalArgumentException("Payment " + payment.getId() + " is not newer than " + last);
+            }
+            last = payment.getId();
+
+            payloadBytes.reset();
+            encode(payment, payload);
+
+            crc.reset();
+            crc.update(payloadBytes.toByteArray(), 0, payloadBytes.size());
+
+            out.writeInt(payloadBytes.size());
+            out.writeInt((int) crc.getValue());
+            payloadBytes.writeTo(out);
+        }
+
+        long position = size;
+        writeFully(ByteBuffer.wrap(bytes.toByteArray()), position);
+        channel.force(false);
+
+        size = position + bytes.size();
+        count += sorted.size();
+        highWaterMark = last;
+    }
+
+    /**
+     * Reads every stored payment in ascending id order
+     * @param action The action to run for each payment
+     * @throws IOException If the store couldn't be read
+     */
+    public void forEach(@NotNull Consumer<? super Payment> action) throws IOException {
+        scan(size, payload -> action.accept(decode(payload)));
+    }
+
+    /**
+     * Reads every stored payment in ascending id order
+     * @return a {@link List} with all the payments
+     * @throws IOException If the store couldn't be read
+     */
+    public List<Payment> readAll() throws IOException {
+        List<Payment> payments = new ArrayList<>(count);
+        forEach(payments::add);
+        return payments;
+    }
+
+    /**
+     * Maps the stored payments into memory for random access. The returned view covers the
+     * payments stored when this method was called and stays valid after the store is closed
+     * @return a {@link MappedPayments} view
+     * @throws IOException If the file couldn't be mapped
+     */
+    public MappedPayments map() throws IOException {
+        // The size is only updated after a whole append is written, so it always ends a record.
+        // The count can be read after an append that happened since, only use it as a hint
+        long limit = size;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, limit);
+
+        int[] offsets = new int[Math.max(16, count)];
+        int index = 0;
+        int position = HEADER_SIZE;
+
+        while (position + RECORD_HEADER_SIZE <= limit) {
+            if (index == offsets.length) {
+                offsets = Arrays.copyOf(offsets, index * 2);
+            }
+
+            offsets[index++] = position;
+            position += RECORD_HEADER_SIZE + buffer.getInt(position);
+        }
+
+        return new MappedPayments(buffer, index == offsets.length ? offsets : Arrays.copyOf(offsets, index));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Visits the valid records up to a limit
+     * @return the position right after the last valid record
+     */
+    private long scan(long limit, RecordVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = HEADER_SIZE;
+        long bufferStart = position;
+        buffer.limit(0);
+        CRC32 crc = new CRC32();
+
+        while (true) {
+            int offset = (int) (position - bufferStart);
+            int available = buffer.limit() - offset;
+            long needed = available >= RECORD_HEADER_SIZE ? RECORD_HEADER_SIZE + (long) buffer.getInt(offset) : RECORD_HEADER_SIZE;
+
+            if (needed < RECORD_HEADER_SIZE || position + needed > limit) {
+                // End of the store, or a torn or corrupt record
+                return position;
+            }
+
+            if (available < needed) {
+                // Refill the buffer starting at the current record
+                if (needed > buffer.capacity()) {
+                    buffer = ByteBuffer.allocate((int) needed);
+                }
+
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), limit - position));
+                readFully(buffer, position);
+                buffer.flip();
+                bufferStart = position;
+                continue;
+            }
+
+            int length = buffer.getInt(offset);
+            int checksum = buffer.getInt(offset + 4);
+            int payloadStart = offset + RECORD_HEADER_SIZE;
+
+            crc.reset();
+            crc.update(buffer.array(), buffer.arrayOffset() + payloadStart, length);
+            if ((int) crc.getValue() != checksum) {
+                return position;
+            }
+
+            ByteBuffer payload = buffer.duplicate();
+            payload.limit(payloadStart + length).position(payloadStart);
+            visitor.visit(payload);
+
+            position += RECORD_HEADER_SIZE + length;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void encode(Payment payment, DataOutputStream out) throws IOException {
+        out.writeInt(payment.getId());
+        out.writeDouble(payment.getAmount());
+        // Unknown dates are written as is, so they read back as unknown
+        out.writeLong(payment.getEpochMillis());
+        writeString(out, payment.getCurrency());
+        writeString(out, payment.getCurrencySymbol());
+        out.writeInt(payment.getPlayerId());
+        writeString(out, payment.getPlayerName());
+
+        UUID uuid = payment.getPlayerUuid();
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+
+        out.writeByte(payment.getStatus() == null ? Payment.Status.UNKNOWN.ordinal() : payment.getStatus().ordinal());
+
+        PackageMap packages = payment.getPackages();
+        out.writeInt(packages.size());
+        for (int i = 0; i < packages.size(); i++) {
+            out.writeInt(packages.getId(i));
+            writeString(out, packages.getName(i));
+        }
+    }
+
+    static Payment decode(ByteBuffer in) {
+        int id = in.getInt();
+        double amount = in.getDouble();
+        long epochMillis = in.getLong();
+        // Records on disk repeat the same few currencies and names, share one copy of each
+        TebexInterner interner = TebexInterner.SHARED;
+        String currency = interner.intern(readString(in));
+        String currencySymbol = interner.intern(readString(in));
+        int playerId = in.getInt();
+        String playerName = interner.intern(readString(in));
+        UUID uuid = in.get() != 0 ? interner.intern(new UUID(in.getLong(), in.getLong())) : null;
+
+        int ordinal = in.get();
+        Payment.Status status = ordinal >= 0 && ordinal < STATUSES.length ? STATUSES[ordinal] : Payment.Status.UNKNOWN;
+
+        int packageCount = in.getInt();
+        PackageMap.Builder packages = new PackageMap.Builder(packageCount);
+        for (int i = 0; i < packageCount; i++) {
+            packages.put(in.getInt(), interner.intern(readString(in)));
+        }
+
+        return new Payment(id, amount, epochMillis, currency, currencySymbol, playerId, playerName, uuid, status, packages.build());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(ByteBuffer payload);
+    }
+}
@@ -0,0 +1,209 @@
+package me.hugmanrique.tebexapi.sync;
+
+import me.hugmanrique.tebexapi.TebexAsyncApi;
+import me.hugmanrique.tebexapi.data.PagedResult;
+import me.hugmanrique.tebexapi.data.Payment;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.exception.UncheckedTebexException;
+import me.hugmanrique.tebexapi.paging.PrefetchingPageIterator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Keeps a {@link PaymentStore} up to date with the payments of a store.
+ *
+ * Each {@link #sync()} only requests the pages holding payments newer than the ones already
+ * stored, and stores large downloads page by page so an interrupted sync can be resumed.
+ * The store only grows: later changes to stored payments (e.g. refunds) aren't synced.
+ */
+public class PaymentSync {
+    private final TebexAsyncApi api;
+    private final PaymentStore store;
+    private final int prefetch;
+
+    /**
+     * Creates a new instance of {@link PaymentSync}
+     * @param api The {@link TebexAsyncApi} to fetch the payments with
+     * @param store The {@link PaymentStore} to write to
+     * @param prefetch The maximum number of pages requested at once
+     */
+    public PaymentSync(@NotNull TebexAsyncApi api, @NotNull PaymentStore store, int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be positive");
+        }
+
+        this.api = Objects.requireNonNull(api, "api");
+        this.store = Objects.requireNonNull(store, "store");
+        this.prefetch = prefetch;
+    }
+
+    public PaymentStore getStore() {
+        return store;
+    }
+
+    /**
+     * Downloads and stores the payments newer than the store's high-water mark.
+     *
+     * When they span more than one page, the pages are read oldest first and each page is
+     * appended as soon as it arrives, so a sync that fails halfway (e.g. the initial download
+     * of a large store) keeps what it stored and the next sync resumes from there. If the number
+     * of payments Tebex reports doesn't line up with the store (e.g. payments were deleted), the
+     * missing payments are downloaded newest first instead and only stored once all of them are.
+     *
+     * This method blocks until the payments are written, so don't call it from the main thread
+     * @return the number of stored payments
+     * @throws TebexException If a page couldn't be fetched, the pages stored before it are kept
+     * @throws IOException If the payments couldn't be written
+     */
+    public synchronized int sync() throws TebexException, IOException {
+        PagedResult<Payment> first = await(api.getPaymentsPaged(1));
+        List<Payment> results = first.getResults();
+        int highWaterMark = store.getHighWaterMark();
+
+        if (first.getTotalPages() <= 1 || first.getResultsPerPage() < 1
+                || (!results.isEmpty() && results.get(results.size() - 1).getId() <= highWaterMark)) {
+            // The stored payments start in the first page
+            return syncNewestFirst(first);
+        }
+
+        int stored = syncOldestFirst(first);
+        // Pick up the payments made while the older pages were read
+        return stored + syncNewestFirst(await(api.getPaymentsPaged(1)));
+    }
+
+    /**
+     * Reads the pages from the one holding the newest stored payment up to the first one.
+     * Pages are addressed by their distance to the oldest payment, which doesn't change when
+     * new payments push the others to later pages
+     * @return the number of stored payments, or -1 if the store and Tebex don't line up
+     */
+    private int syncOldestFirst(PagedResult<Payment> first) throws TebexException, IOException {
+        int perPage = Math.max(1, first.getResultsPerPage());
+        int total = first.getTotalResults();
+        // Index of the first payment to read, counting from the oldest one. Start one payment
+        // earlier, so the first page must hold a stored payment if the store lines up
+        int next = Math.max(0, store.size() - 1);
+        boolean checked = store.size() == 0;
+        int stored = 0;
+
+        while (next < total) {
+            int passStart = next;
+            int passTotal = total;
+            int firstPage = (total - 1 - next) / perPage + 1;
+            int pages = Math.min(prefetch, firstPage);
+            List<CompletableFuture<PagedResult<Payment>>> requests = new ArrayList<>(pages);
+
+            for (int i = 0; i < pages; i++) {
+                requests.add(api.getPaymentsPaged(firstPage - i));
+            }
+
+            try {
+                for (int i = 0; i < pages; i++) {
+                    PagedResult<Payment> page = await(requests.get(i));
+                    if (page.getTotalResults() != total || page.getResults().isEmpty()) {
+                        // New payments moved the page boundaries, compute them again
+                        total = page.getTotalResults();
+                        break;
+                    }
+
+                    List<Payment> results = page.getResults();
+                    if (!checked) {
+                        checked = true;
+                        if (results.get(results.size() - 1).getId() > store.getHighWaterMark()) {
+                            return stored + syncNewestFirst(first);
+                        }
+                    }
+
+                    stored += append(results);
+                    next = total - (firstPage - i - 1) * perPage;
+                }
+            } finally {
+                for (CompletableFuture<PagedResult<Payment>> request : requests) {
+                    request.cancel(false);
+                }
+            }
+
+            if (next == passStart && total == passTotal) {
+                // An empty page that didn't move the boundaries, asking for it again won't help
+                return stored + syncNewestFirst(first);
+            }
+        }
+
+        return stored;
+    }
+
+    /**
+     * Pages newest first until the first stored payment and stores all of them at once
+     */
+    private int syncNewestFirst(PagedResult<Payment> first) throws TebexException, IOException {
+        int highWaterMark = store.getHighWaterMark();
+        Map<Integer, Payment> fresh = new TreeMap<>();
+        boolean reached = collect(first.getResults(), highWaterMark, fresh);
+
+        if (!reached && first.getTotalPages() > 1) {
+            // Estimate how many pages are missing to avoid prefetching pages that won't be read
+            int missing = Math.max(0, first.getTotalResults() - store.size() - first.getResults().size());
+            int perPage = Math.max(1, first.getResultsPerPage());
+            int window = Math.max(1, Math.min(prefetch, (missing + perPage - 1) / perPage));
+
+            try (PrefetchingPageIterator<Payment> pages = new PrefetchingPageIterator<>(api::getPaymentsPaged, 2, window)) {
+                while (pages.hasNext()) {
+                    Payment payment = pages.next();
+                    if (payment.getId() <= highWaterMark) {
+                        break;
+                    }
+                    fresh.putIfAbsent(payment.getId(), payment);
+                }
+            } catch (UncheckedTebexException e) {
+                throw e.getCause();
+            }
+        }
+
+        store.append(fresh.values());
+        return fresh.size();
+    }
+
+    private int append(List<Payment> page) throws IOException {
+        int highWaterMark = store.getHighWaterMark();
+        List<Payment> fresh = new ArrayList<>(page.size());
+
+        for (Payment payment : page) {
+            if (payment.getId() > highWaterMark) {
+                fresh.add(payment);
+            }
+        }
+
+        store.append(fresh);
+        return fresh.size();
+    }
+
+    private static boolean collect(Iterable<Payment> payments, int highWaterMark, Map<Integer, Payment> fresh) {
+        for (Payment payment : payments) {
+            if (payment.getId() <= highWaterMark) {
+                return true;
+            }
+            fresh.putIfAbsent(payment.getId(), payment);
+        }
+
+        return false;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws TebexException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TebexException) {
+                throw (TebexException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
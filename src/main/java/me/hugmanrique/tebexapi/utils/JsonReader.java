@@ -1,17 +1,16 @@
 package me.hugmanrique.tebexapi.utils;
 
-import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import me.hugmanrique.tebexapi.exception.TebexException;
+import me.hugmanrique.tebexapi.http.HttpUrlConnectionTransport;
+import me.hugmanrique.tebexapi.http.TebexRequest;
+import me.hugmanrique.tebexapi.http.TebexResponse;
+import me.hugmanrique.tebexapi.http.TebexTransport;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.*;
-import java.net.URL;
-import java.net.URLConnection;
-import java.nio.charset.Charset;
 
 /**
  * Created by HugmanriqueMC. All Rights Reserved
@@ -22,59 +21,106 @@ import java.nio.charset.Charset;
  *         Spigot. Created the 14/05/2016.
  **/
 public class JsonReader {
+    private static final TebexTransport DEFAULT_TRANSPORT = new HttpUrlConnectionTransport();
+
+    /**
+     * @deprecated Use a {@link TebexTransport} and {@link #readJson(TebexResponse, boolean)} instead
+     */
+    @Deprecated
     public static JSONObject readJsonFromUrlGet(String direction, String key, boolean array) throws TebexException {
-        return readJsonFromUrl(direction, key, array, null);
+        return readJsonFromUrl(DEFAULT_TRANSPORT, TebexRequest.get(direction), key, array);
     }
 
+    /**
+     * @deprecated Use a {@link TebexTransport} and {@link #readJson(TebexResponse, boolean)} instead
+     */
+    @Deprecated
     public static JSONObject readJsonFromUrlPost(String direction, String key, boolean array, @NotNull JSONObject post)
             throws TebexException {
-        return readJsonFromUrl(direction, key, array, post);
+        byte[] body = post.toString().getBytes(StandardCharsets.UTF_8);
+        return readJsonFromUrl(DEFAULT_TRANSPORT, TebexRequest.post(direction, body), key, array);
     }
 
-    private static JSONObject readJsonFromUrl(String direction, String key, boolean array, @Nullable JSONObject post)
+    /**
+     * Sends a request through a transport and reads its response as JSON
+     * @param transport The {@link TebexTransport} that sends the request
+     * @param request The {@link TebexRequest} to send
+     * @param key The Tebex's secret key
+     * @param array Whether the response is a JSON array, it is then wrapped in an object under the "main" key
+     * @return the parsed response or null if the server returned an empty error
+     * @throws TebexException If the request fails or the server returns an error
+     */
+    public static JSONObject readJsonFromUrl(TebexTransport transport, TebexRequest request, String key, boolean array)
             throws TebexException {
-        try {
-            URL url = new URL(direction);
-            HttpURLConnection con = (HttpURLConnection) url.openConnection();
-            con.setRequestProperty("X-Tebex-Secret", key);
+        try (TebexResponse response = transport.execute(request.withHeader("X-Tebex-Secret", key))) {
+            return readJson(response, array);
+        } catch (IOException e) {
+            throw new TebexException("Failed to read JSON from URL", e);
+        }
+    }
 
-            if (post != null) {
-                con.setRequestMethod("POST");
-                con.setRequestProperty("Content-Type", "application/json");
-                con.setDoOutput(true);
+    /**
+     * Reads the body of a response as JSON. The response is not closed
+     * @param response The {@link TebexResponse} to read
+     * @param array Whether the response is a JSON array, it is then wrapped in an object under the "main" key
+     * @return the parsed response or null if the server returned an empty error
+     * @throws TebexException If the server returned an error
+     * @throws IOException If the body couldn't be read
+     */
+    @Nullable
+    public static JSONObject readJson(TebexResponse response, boolean array) throws TebexException, IOException {
+        if (!checkResponse(response)) {
+            return null;
+        }
 
-                try (OutputStream os = con.getOutputStream()) {
-                    byte[] input = post.toString().getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-            }
+        String jsonText = readAll(openReader(response));
+        return new JSONObject((array ? "{main: " : "") + jsonText + (array ? "}" : ""));
+    }
 
-            if (con.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(con.getInputStream(), StandardCharsets.UTF_8));
-                String jsonText = readAll(reader);
-                return new JSONObject((array ? "{main: " : "") + jsonText + (array ? "}" : ""));
-            } else {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(con.getErrorStream(), StandardCharsets.UTF_8))) {
-                    String jsonText = readAll(reader);
-                    // no result
-                    if (jsonText.equals("[]")) {
-                        return null;
-                    }
-                    throw new TebexException(jsonText);
-                }
-            }
-        } catch (IOException e) {
-            throw new TebexException("Failed to read JSON from URL", e);
+    /**
+     * Reads the body of a response into a {@link JsonStreamReader}. The response is not closed
+     * @param response The {@link TebexResponse} to read
+     * @return the reader or null if the server returned an empty error
+     * @throws TebexException If the server returned an error
+     * @throws IOException If the error body couldn't be read
+     */
+    @Nullable
+    public static JsonStreamReader readJsonStream(TebexResponse response) throws TebexException, IOException {
+        if (!checkResponse(response)) {
+            return null;
         }
+
+        return new JsonStreamReader(openReader(response));
+    }
+
+    /**
+     * Checks the status code of a response, reading the body of failed responses
+     * @return false if the server returned an empty error ("[]"), true if it was successful
+     * @throws TebexException If the server returned any other error
+     */
+    private static boolean checkResponse(TebexResponse response) throws TebexException, IOException {
+        if (response.isSuccessful()) {
+            return true;
+        }
+
+        String jsonText = readAll(openReader(response));
+        // no result
+        if (jsonText.equals("[]")) {
+            return false;
+        }
+        throw new TebexException(jsonText);
+    }
+
+    private static Reader openReader(TebexResponse response) {
+        return new InputStreamReader(response.getBody(), StandardCharsets.UTF_8);
     }
 
-    private static String readAll(Reader reader) throws IOException {
+    public static String readAll(Reader reader) throws IOException {
         StringBuilder builder = new StringBuilder();
-        int cp;
-        while ((cp = reader.read()) != -1){
-            builder.append((char) cp);
+        char[] buffer = new char[4096];
+        int read;
+        while ((read = reader.read(buffer)) != -1){
+            builder.append(buffer, 0, read);
         }
 
         return builder.toString();
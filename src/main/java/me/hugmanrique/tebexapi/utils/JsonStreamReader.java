@@ -0,0 +1,806 @@
+package me.hugmanrique.tebexapi.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser that reads JSON tokens straight from a {@link Reader}, so responses can be
+ * turned into data objects without first being copied into a {@link String} and a DOM.
+ *
+ * Scalars are read leniently the same way {@link JsonUtils} does: Tebex returns many numbers
+ * as strings (e.g. {@code "price": "5.00"}), so the {@code next*} methods convert between
+ * strings, numbers and booleans, and read {@code null} as the type's empty value.
+ */
+public class JsonStreamReader implements Closeable {
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+
+    private int[] stack;
+    private int depth;
+
+    private Token peeked;
+    private final StringBuilder scratch = new StringBuilder();
+    private final BufferView view = new BufferView();
+
+    private StringBuilder capture;
+    private int captureStart = -1;
+
+    public JsonStreamReader(Reader in) {
+        this(in, 8192);
+    }
+
+    public JsonStreamReader(Reader in, int bufferSize) {
+        this.in = in;
+        this.buffer = new char[bufferSize];
+        this.stack = new int[32];
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Creates a reader over JSON text that is already in memory, reading it in place
+     * @param json The JSON text, which must not change while it is read
+     */
+
+    public JsonStreamReader(char[] json) {
+        this(json, 0);
+    }
+
+    /**
+     * Creates a reader over JSON text that is already in memory, starting at a value in the middle of it
+     * @param json The JSON text, which must not change while it is read
+     * @param offset The position of the value to read, e.g. one found with a capture
+     */
+
+    public JsonStreamReader(char[] json, int offset) {
+        this.in = null;
+        this.buffer = json;
+        this.pos = offset;
+        this.limit = json.length;
+        // Records kept in memory are small, they don't need the stack a whole response does
+        this.stack = new int[8];
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Gets the type of the next token without consuming it
+     * @return the next {@link Token}
+     * @throws IOException If the JSON is malformed or couldn't be read
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int scope = stack[depth - 1];
+        int c;
+
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                pos--;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                stack[depth - 1] = DANGLING_NAME;
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (skipWhitespace() == -1) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                throw syntaxError("Expected the end of the document");
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * @return whether the current object or array has more elements
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Reads a string, or the literal text of a number or boolean
+     * @return the value or null if it is a JSON null
+     */
+    @Nullable
+    public String nextString() throws IOException {
+        Token token = peek();
+        peeked = null;
+
+        switch (token) {
+            case STRING:
+                return readString();
+            case NUMBER:
+                return readNumber().toString();
+            case BOOLEAN:
+                return Boolean.toString(readBoolean());
+            case NULL:
+                readNull();
+                return null;
+            default:
+                peeked = token;
+                throw syntaxError("Expected a string but was " + token);
+        }
+    }
+
+    /**
+     * Reads a string like {@link #nextString()}, but without copying it out of the reader when possible.
+     * The returned sequence is only valid until the next call to this reader
+     * @return the value or null if it is a JSON null
+     */
+    @Nullable
+    public CharSequence nextStringView() throws IOException {
+        if (peek() != Token.STRING) {
+            return nextString();
+        }
+        peeked = null;
+
+        return readStringView();
+    }
+
+    /**
+     * Reads a name like {@link #nextName()}, but as a view that is only valid until the next call to this reader
+     */
+    CharSequence nextNameView() throws IOException {
+        expect(Token.NAME);
+        return readStringView();
+    }
+
+    /**
+     * Reads a string whose opening quote was already consumed, without copying it out of the buffer when possible
+     */
+    private CharSequence readStringView() throws IOException {
+        for (int i = pos; i < limit; i++) {
+            char c = buffer[i];
+            if (c == '"') {
+                view.offset = pos;
+                view.length = i - pos;
+                pos = i + 1;
+                return view;
+            }
+            if (c == '\\') {
+                break;
+            }
+        }
+
+        scratch.setLength(0);
+        readStringInto(scratch);
+        return scratch;
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if ((int) value != value) {
+            throw syntaxError("Expected an int but was " + value);
+        }
+
+        return (int) value;
+    }
+
+    public long nextLong() throws IOException {
+        Token token = peek();
+        CharSequence text;
+
+        switch (token) {
+            case NUMBER:
+                peeked = null;
+                text = readNumber();
+                break;
+            case STRING:
+                peeked = null;
+                text = readString();
+                break;
+            case NULL:
+                peeked = null;
+                readNull();
+                return 0;
+            default:
+                throw syntaxError("Expected a number but was " + token);
+        }
+
+        return parseLong(text);
+    }
+
+    public double nextDouble() throws IOException {
+        Token token = peek();
+        String text;
+
+        switch (token) {
+            case NUMBER:
+                peeked = null;
+                text = readNumber().toString();
+                break;
+            case STRING:
+                peeked = null;
+                text = readString().trim();
+                break;
+            case NULL:
+                peeked = null;
+                readNull();
+                return 0;
+            default:
+                throw syntaxError("Expected a number but was " + token);
+        }
+
+        if (text.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected a number but was \"" + text + "\"");
+        }
+    }
+
+    /**
+     * Reads a boolean. Numbers are true when they are not 0 and strings when they are "true" or "1"
+     */
+    public boolean nextBoolean() throws IOException {
+        Token token = peek();
+        peeked = null;
+
+        switch (token) {
+            case BOOLEAN:
+                return readBoolean();
+            case NUMBER:
+                return parseLong(readNumber()) != 0;
+            case STRING:
+                String text = readString();
+                return text.equalsIgnoreCase("true") || text.equals("1");
+            case NULL:
+                readNull();
+                return false;
+            default:
+                peeked = token;
+                throw syntaxError("Expected a boolean but was " + token);
+        }
+    }
+
+    /**
+     * Consumes a null value
+     * @return whether the next value was null, if it wasn't nothing is consumed
+     */
+    public boolean nextNull() throws IOException {
+        if (peek() != Token.NULL) {
+            return false;
+        }
+
+        peeked = null;
+        readNull();
+        return true;
+    }
+
+    /**
+     * Skips the next value, including all the nested values of an object or array
+     */
+    public void skipValue() throws IOException {
+        int nested = 0;
+
+        do {
+            Token token = peek();
+            peeked = null;
+
+            switch (token) {
+                case BEGIN_OBJECT:
+                    push(EMPTY_OBJECT);
+                    nested++;
+                    break;
+                case BEGIN_ARRAY:
+                    push(EMPTY_ARRAY);
+                    nested++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    nested--;
+                    break;
+                case NAME:
+                case STRING:
+                    skipString();
+                    break;
+                case NUMBER:
+                    skipNumber();
+                    break;
+                case BOOLEAN:
+                    readBoolean();
+                    break;
+                case NULL:
+                    readNull();
+                    break;
+                default:
+                    peeked = token;
+                    throw syntaxError("Expected a value but was " + token);
+            }
+        } while (nested > 0);
+    }
+
+    /**
+     * Reads the next value without decoding it, e.g. to decode it later with another reader
+     * @return the JSON text of the value, including the nested values of an object or array
+     */
+    public String nextRaw() throws IOException {
+        startCapture();
+        skipValue();
+        return new String(endCapture());
+    }
+
+    /**
+     * Starts recording the text of the next value, which is then read as usual
+     * @see #endCapture()
+     */
+    void startCapture() throws IOException {
+        Token token = peek();
+        if (token == Token.NAME || token == Token.END_OBJECT || token == Token.END_ARRAY || token == Token.END_DOCUMENT) {
+            throw syntaxError("Expected a value but was " + token);
+        }
+
+        if (capture == null) {
+            capture = new StringBuilder();
+        }
+        capture.setLength(0);
+
+        captureStart = valueStart(token);
+    }
+
+    /**
+     * Peeks the next value of a capture
+     * @return the position of the value in the text captured since {@link #startCapture()}
+     */
+    int capturedOffset() throws IOException {
+        // Peek first, it may refill the buffer and move the captured text to the builder
+        int start = valueStart(peek());
+        return capture.length() + start - captureStart;
+    }
+
+    /**
+     * @return the position in the buffer of the peeked value
+     */
+    private int valueStart(Token token) {
+        // peek() consumed the opening character of objects, arrays and strings
+        boolean opened = token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY || token == Token.STRING;
+        return opened ? pos - 1 : pos;
+    }
+
+    /**
+     * @return the text read since {@link #startCapture()}
+     */
+    char[] endCapture() {
+        int start = captureStart;
+        captureStart = -1;
+
+        // Fast path, the whole value was in the buffer
+        if (capture.length() == 0) {
+            return Arrays.copyOfRange(buffer, start, pos);
+        }
+
+        capture.append(buffer, start, pos - start);
+        char[] text = new char[capture.length()];
+        capture.getChars(0, text.length, text, 0);
+        return text;
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    private boolean fill() throws IOException {
+        if (captureStart >= 0) {
+            // The captured value spans several buffers, keep the part read so far
+            capture.append(buffer, captureStart, limit - captureStart);
+            captureStart = 0;
+        }
+
+        pos = 0;
+        limit = 0;
+
+        if (in == null) {
+            return false;
+        }
+
+        int read;
+        while ((read = in.read(buffer, 0, buffer.length)) == 0) {
+            // Keep reading until we get data or the end of the stream
+        }
+
+        if (read == -1) {
+            return false;
+        }
+
+        limit = read;
+        return true;
+    }
+
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c = skipWhitespace();
+        if (c == -1) {
+            throw syntaxError("Unexpected end of input");
+        }
+
+        pos++;
+        return c;
+    }
+
+    /**
+     * Reads a string whose opening quote was already consumed
+     */
+    private String readString() throws IOException {
+        // Fast path, the whole string is in the buffer and has no escapes
+        for (int i = pos; i < limit; i++) {
+            char c = buffer[i];
+            if (c == '"') {
+                String value = new String(buffer, pos, i - pos);
+                pos = i + 1;
+                return value;
+            }
+            if (c == '\\') {
+                break;
+            }
+        }
+
+        scratch.setLength(0);
+        readStringInto(scratch);
+        return scratch.toString();
+    }
+
+    /**
+     * Skips a string whose opening quote was already consumed, without copying it
+     */
+    private void skipString() throws IOException {
+        while (true) {
+            while (pos < limit) {
+                char c = buffer[pos++];
+
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    // Skip the escaped character, the digits of a unicode escape can't be a quote
+                    if (pos == limit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    pos++;
+                }
+            }
+
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private void readStringInto(StringBuilder builder) throws IOException {
+        while (true) {
+            int start = pos;
+
+            while (pos < limit) {
+                char c = buffer[pos++];
+
+                if (c == '"') {
+                    builder.append(buffer, start, pos - start - 1);
+                    return;
+                }
+                if (c == '\\') {
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscape());
+                    start = pos;
+                }
+            }
+
+            builder.append(buffer, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+
+        char c = buffer[pos++];
+        switch (c) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit == -1) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            default:
+                throw syntaxError("Invalid escape sequence '\\" + c + "'");
+        }
+    }
+
+    private void skipNumber() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return;
+            }
+
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private CharSequence readNumber() throws IOException {
+        scratch.setLength(0);
+
+        while (true) {
+            if (pos == limit && !fill()) {
+                return scratch;
+            }
+
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                scratch.append(c);
+                pos++;
+            } else {
+                return scratch;
+            }
+        }
+    }
+
+    private boolean readBoolean() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+
+        boolean value = buffer[pos] == 't';
+        readLiteral(value ? "true" : "false");
+        return value;
+    }
+
+    private void readNull() throws IOException {
+        readLiteral("null");
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unexpected end of input");
+            }
+            if (buffer[pos++] != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private long parseLong(CharSequence text) throws IOException {
+        int length = text.length();
+        int start = 0;
+
+        while (start < length && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (length > start && text.charAt(length - 1) == ' ') {
+            length--;
+        }
+        if (start == length) {
+            return 0;
+        }
+
+        boolean negative = text.charAt(start) == '-';
+        int i = negative ? start + 1 : start;
+        long value = 0;
+
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                // Decimals or exponent, let the JDK handle it
+                try {
+                    return (long) Double.parseDouble(text.subSequence(start, length).toString());
+                } catch (NumberFormatException e) {
+                    throw syntaxError("Expected a number but was \"" + text + "\"");
+                }
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        return negative ? -value : value;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at depth " + depth);
+    }
+
+    private class BufferView implements CharSequence {
+        private int offset;
+        private int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return buffer[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, offset, length);
+        }
+    }
+
+    public enum Token {
+
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+
+    }
+}
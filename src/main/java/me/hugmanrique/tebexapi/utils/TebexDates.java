@@ -0,0 +1,120 @@
+package me.hugmanrique.tebexapi.utils;
+
+/**
+ * Parses the ISO-8601 timestamps Tebex sends ({@code 2016-05-14T19:58:42+00:00}) without
+ * a {@link java.text.DateFormat}, so it is safe to call from any thread and doesn't allocate.
+ */
+public final class TebexDates {
+    /**
+     * Returned by {@link #parseEpochMillis(CharSequence)} when the text isn't a valid timestamp
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private TebexDates() {
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd'T'HH:mm:ss[.SSS][Z|+-HH[:]mm|+-HH]} timestamp
+     * @param text The text to parse, a space is also accepted instead of the 'T'
+     * @return the milliseconds since the epoch or {@link #INVALID}
+     */
+    public static long parseEpochMillis(CharSequence text) {
+        if (text == null || text.length() < 19) {
+            return INVALID;
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+
+        char dateTimeSeparator = text.charAt(10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 60
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(13) != ':' || text.charAt(16) != ':'
+                || (dateTimeSeparator != 'T' && dateTimeSeparator != 't' && dateTimeSeparator != ' ')) {
+            return INVALID;
+        }
+
+        int length = text.length();
+        int pos = 19;
+        int millis = 0;
+
+        if (pos < length && text.charAt(pos) == '.') {
+            pos++;
+            int scale = 100;
+
+            while (pos < length && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                millis += (text.charAt(pos++) - '0') * scale;
+                scale /= 10;
+            }
+        }
+
+        int offsetSeconds = 0;
+
+        if (pos < length) {
+            char sign = text.charAt(pos++);
+
+            if (sign == 'Z' || sign == 'z') {
+                if (pos != length) {
+                    return INVALID;
+                }
+            } else if (sign == '+' || sign == '-') {
+                int offsetHours = digits(text, pos, 2);
+                int offsetMinutes = 0;
+                pos += 2;
+
+                if (pos < length && text.charAt(pos) == ':') {
+                    pos++;
+                }
+                if (pos < length) {
+                    offsetMinutes = digits(text, pos, 2);
+                    pos += 2;
+                }
+                if (offsetHours < 0 || offsetMinutes < 0 || pos != length) {
+                    return INVALID;
+                }
+
+                offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+            } else {
+                return INVALID;
+            }
+        }
+
+        long epochSecond = daysFromCivil(year, month, day) * 86400L + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return epochSecond * 1000 + millis;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, see
+     * http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        if (start + count > text.length()) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+}
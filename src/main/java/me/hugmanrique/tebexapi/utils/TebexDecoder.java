@@ -0,0 +1,1041 @@
+package me.hugmanrique.tebexapi.utils;
+
+import me.hugmanrique.tebexapi.data.*;
+import me.hugmanrique.tebexapi.data.Package;
+import me.hugmanrique.tebexapi.exception.TebexException;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Decodes Tebex responses from a {@link JsonStreamReader} directly into the data objects,
+ * reading every value once without building an intermediate tree.
+ *
+ * Missing values are decoded the same way {@link JsonUtils} does: 0, false or an empty string.
+ */
+public class TebexDecoder {
+    /**
+     * The groups of payment fields {@link #parsePayment(JsonStreamReader, int)} can decode, the id is always decoded
+     */
+    public static final int PAYMENT_AMOUNT = 1;
+    public static final int PAYMENT_DATE = 1 << 1;
+    public static final int PAYMENT_CURRENCY = 1 << 2;
+    public static final int PAYMENT_PLAYER = 1 << 3;
+    public static final int PAYMENT_STATUS = 1 << 4;
+    public static final int PAYMENT_PACKAGES = 1 << 5;
+    public static final int PAYMENT_ALL = (1 << 6) - 1;
+
+    /**
+     * The name of each group of payment fields, by bit index
+     */
+    private static final String[] PAYMENT_FIELDS = { "amount", "date", "currency", "player", "status", "packages" };
+
+    private static final Payment.Status[] STATUSES = Payment.Status.values();
+
+    private final TebexInterner interner;
+
+    public TebexDecoder() {
+        this(TebexInterner.SHARED);
+    }
+
+    /**
+     * Creates a new instance of {@link TebexDecoder}
+     * @param interner The {@link TebexInterner} the repeated strings and UUIDs of payments and commands go through
+     */
+
+    public TebexDecoder(TebexInterner interner) {
+        this.interner = Objects.requireNonNull(interner, "interner");
+    }
+
+    public Information parseInformation(JsonStreamReader reader) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        Account account = null;
+        int serverId = 0;
+        String serverName = "";
+        String analyticsProject = "";
+        String analyticsKey = "";
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            switch (name) {
+                case "account":
+                    account = parseAccount(reader);
+                    break;
+                case "server":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("id")) {
+                            serverId = reader.nextInt();
+                        } else if (field.equals("name")) {
+                            serverName = string(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "analytics":
+                    //Analytics (Never heard of this, but including it... :S)
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (!reader.nextName().equals("internal") || reader.nextNull()) {
+                            reader.skipValue();
+                            continue;
+                        }
+
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            String field = reader.nextName();
+                            if (field.equals("project")) {
+                                analyticsProject = string(reader);
+                            } else if (field.equals("key")) {
+                                analyticsKey = string(reader);
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        if (account == null) {
+            account = new Account(0, "", "", "", "", false);
+        }
+
+        return new Information(account, serverId, serverName, analyticsProject, analyticsKey);
+    }
+
+    private Account parseAccount(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        String domain = "";
+        String name = "";
+        String currencyName = "";
+        String currencySymbol = "";
+        boolean onlineMode = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "domain":
+                    domain = string(reader);
+                    break;
+                case "name":
+                    name = string(reader);
+                    break;
+                case "online_mode":
+                    onlineMode = reader.nextBoolean();
+                    break;
+                case "currency":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("iso_4217")) {
+                            currencyName = string(reader);
+                        } else if (field.equals("symbol")) {
+                            currencySymbol = string(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Account(id, domain, name, currencyName, currencySymbol, onlineMode);
+    }
+
+    /**
+     * Decodes a {@code /listing} response
+     */
+    public Set<Category> parseListing(JsonStreamReader reader) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        Set<Category> categories = new LinkedHashSet<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (name.equals("categories")) {
+                categories = loopCategory(reader);
+            } else {
+                error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        return Collections.unmodifiableSet(categories);
+    }
+
+    public Set<Category> loopCategory(JsonStreamReader reader) throws IOException {
+        Set<Category> categories = new LinkedHashSet<>();
+        if (reader.nextNull()) {
+            return categories;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            categories.add(parseCategory(reader));
+        }
+        reader.endArray();
+
+        return categories;
+    }
+
+    public Category parseCategory(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        int order = 0;
+        String name = "";
+        Set<Category> childs = new LinkedHashSet<>();
+        Set<Package> packages = new LinkedHashSet<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "order":
+                    order = reader.nextInt();
+                    break;
+                case "name":
+                    name = string(reader);
+                    break;
+                case "subcategories":
+                    childs = loopCategory(reader);
+                    break;
+                case "packages":
+                    packages = parsePackages(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Category(id, order, name, childs, packages);
+    }
+
+    public Set<Package> parsePackages(JsonStreamReader reader) throws IOException {
+        Set<Package> packages = new LinkedHashSet<>();
+        if (reader.nextNull()) {
+            return packages;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            packages.add(parsePackage(reader));
+        }
+        reader.endArray();
+
+        return packages;
+    }
+
+    public Package parsePackage(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        int order = 0;
+        String name = "";
+        double price = 0;
+        boolean saleActive = false;
+        double discount = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "order":
+                    order = reader.nextInt();
+                    break;
+                case "name":
+                    name = string(reader);
+                    break;
+                case "price":
+                    price = reader.nextDouble();
+                    break;
+                case "sale":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("active")) {
+                            saleActive = reader.nextBoolean();
+                        } else if (field.equals("discount")) {
+                            discount = reader.nextDouble();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Package(id, order, name, price, saleActive, discount);
+    }
+
+    /**
+     * Decodes a {@code /queue} response. {@code next_check} and {@code more} are read
+     * from the {@code meta} object, falling back to the root object
+     */
+    public PlayerQueue parseQueue(JsonStreamReader reader) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        boolean executeOffline = false;
+        int nextCheck = 0;
+        boolean more = false;
+        List<QueuedPlayer> players = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            switch (name) {
+                case "meta":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "execute_offline":
+                                executeOffline = reader.nextBoolean();
+                                break;
+                            case "next_check":
+                                nextCheck = reader.nextInt();
+                                break;
+                            case "more":
+                                more = reader.nextBoolean();
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "next_check":
+                    nextCheck = reader.nextInt();
+                    break;
+                case "more":
+                    more = reader.nextBoolean();
+                    break;
+                case "players":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        players.add(parseQueuedPlayer(reader));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        return new PlayerQueue(executeOffline, nextCheck, more, players);
+    }
+
+    public QueuedPlayer parseQueuedPlayer(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        String name = "";
+        UUID uuid = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "name":
+                    name = string(reader);
+                    break;
+                case "uuid":
+                    uuid = TebexUuids.parse(reader.nextStringView());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new QueuedPlayer(id, name, uuid);
+    }
+
+    /**
+     * Decodes a {@code /queue/online-commands/{playerId}} response
+     */
+    public List<OnlineCommand> parseOnlineCommands(JsonStreamReader reader) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        List<OnlineCommand> onlineCommands = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (name.equals("commands") && !reader.nextNull()) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    onlineCommands.add(parseOnlineCmd(reader));
+                }
+                reader.endArray();
+            } else {
+                error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        return Collections.unmodifiableList(onlineCommands);
+    }
+
+    public OnlineCommand parseOnlineCmd(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        String cmd = "";
+        String payment = "";
+        String packageId = "";
+        int delay = 0;
+        int slots = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "command":
+                    cmd = string(reader);
+                    break;
+                case "payment":
+                    payment = interned(reader);
+                    break;
+                case "package":
+                    packageId = interned(reader);
+                    break;
+                case "conditions":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "delay":
+                                delay = reader.nextInt();
+                                break;
+                            case "slots":
+                                slots = reader.nextInt();
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new OnlineCommand(id, cmd, payment, packageId, delay, slots);
+    }
+
+    /**
+     * Decodes a {@code /queue/offline-commands} response
+     */
+    public Set<OfflineCommand> parseOfflineCommands(JsonStreamReader reader) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        Set<OfflineCommand> offlineCommands = new LinkedHashSet<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (name.equals("commands") && !reader.nextNull()) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    offlineCommands.add(parseOfflineCmd(reader));
+                }
+                reader.endArray();
+            } else {
+                error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        return Collections.unmodifiableSet(offlineCommands);
+    }
+
+    public OfflineCommand parseOfflineCmd(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        String cmd = "";
+        String payment = "";
+        String packageId = "";
+        int delay = 0;
+        int playerId = 0;
+        String playerName = "";
+        UUID uuid = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "command":
+                    cmd = string(reader);
+                    break;
+                case "payment":
+                    payment = interned(reader);
+                    break;
+                case "package":
+                    packageId = interned(reader);
+                    break;
+                case "conditions":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals("delay")) {
+                            delay = reader.nextInt();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "player":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "id":
+                                playerId = reader.nextInt();
+                                break;
+                            case "name":
+                                playerName = interned(reader);
+                                break;
+                            case "uuid":
+                                uuid = interner.intern(TebexUuids.parse(reader.nextStringView()));
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new OfflineCommand(id, cmd, payment, packageId, delay, playerId, playerName, uuid);
+    }
+
+    /**
+     * Decodes a {@code /payments} response, which is a plain array of payments
+     */
+    public Set<Payment> parsePayments(JsonStreamReader reader) throws IOException, TebexException {
+        Set<Payment> paymentSet = new LinkedHashSet<>();
+
+        if (reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+            // Errors are returned as an object instead of the array
+            ErrorState error = new ErrorState();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                error.readOrSkip(reader.nextName(), reader);
+            }
+            reader.endObject();
+            error.check();
+
+            return Collections.emptySet();
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            paymentSet.add(parsePayment(reader));
+        }
+        reader.endArray();
+
+        return Collections.unmodifiableSet(paymentSet);
+    }
+
+    /**
+     * Decodes a {@code /payments?paged=1} response
+     */
+    public PagedResult<Payment> parsePaymentPage(JsonStreamReader reader) throws IOException, TebexException {
+        return parsePaymentPage(reader, false);
+    }
+
+    /**
+     * Decodes a {@code /payments?paged=1} response into {@link LazyPayment}s
+     */
+    public PagedResult<Payment> parseLazyPaymentPage(JsonStreamReader reader) throws IOException, TebexException {
+        return parsePaymentPage(reader, true);
+    }
+
+    private PagedResult<Payment> parsePaymentPage(JsonStreamReader reader, boolean lazy) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        int totalResults = 0;
+        int resultsPerPage = 0;
+        int currentPage = 0;
+        int totalPages = 0;
+        int indexFrom = 0;
+        int indexTo = 0;
+        List<Payment> paymentList = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            switch (name) {
+                case "total":
+                    totalResults = reader.nextInt();
+                    break;
+                case "per_page":
+                    resultsPerPage = reader.nextInt();
+                    break;
+                case "current_page":
+                    currentPage = reader.nextInt();
+                    break;
+                case "last_page":
+                    totalPages = reader.nextInt();
+                    break;
+                case "from":
+                    indexFrom = reader.nextInt();
+                    break;
+                case "to":
+                    indexTo = reader.nextInt();
+                    break;
+                case "data":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        paymentList.add(lazy ? parseLazyPayment(reader) : parsePayment(reader));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        return new PagedResult<>(paymentList, resultsPerPage, currentPage, totalResults, totalPages, indexFrom, indexTo);
+    }
+
+    public Payment parsePayment(JsonStreamReader reader) throws IOException {
+        return parsePayment(reader, PAYMENT_ALL);
+    }
+
+    /**
+     * Decodes some fields of a payment, leaving the rest at their default values
+     * @param fields The groups of fields to decode, e.g. {@code PAYMENT_PLAYER | PAYMENT_STATUS}
+     * @return the {@link Payment}
+     */
+    public Payment parsePayment(JsonStreamReader reader, int fields) throws IOException {
+        PaymentFields payment = new PaymentFields();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (name.equals("id")) {
+                payment.id = reader.nextInt();
+            } else if ((paymentField(name) & fields) != 0) {
+                readPaymentField(name, reader, payment);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return payment.build();
+    }
+
+    /**
+     * Reads a payment without decoding its fields, see {@link LazyPayment}. Only the id is decoded,
+     * the position of the other fields is kept so each of them can be decoded on its own later
+     */
+    public LazyPayment parseLazyPayment(JsonStreamReader reader) throws IOException {
+        int id = 0;
+        int[] offsets = new int[PAYMENT_FIELDS.length];
+        Arrays.fill(offsets, -1);
+
+        reader.startCapture();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            // Most names are skipped, compare them in the buffer instead of copying each one
+            CharSequence name = reader.nextNameView();
+
+            if ("id".contentEquals(name)) {
+                id = reader.nextInt();
+                continue;
+            }
+
+            int index = paymentFieldIndex(name);
+            if (index >= 0) {
+                offsets[index] = reader.capturedOffset();
+            }
+            reader.skipValue();
+        }
+        reader.endObject();
+
+        return new LazyPayment(id, reader.endCapture(), offsets, this);
+    }
+
+    /**
+     * Decodes a group of fields of a {@link LazyPayment}, leaving the rest at their default values
+     * @param json The JSON object of the payment
+     * @param offsets The position of each group in the object, see {@link #parseLazyPayment(JsonStreamReader)}
+     * @param field The group to decode, e.g. {@link #PAYMENT_PLAYER}
+     * @return the {@link Payment}
+     */
+    public Payment parsePaymentField(char[] json, int[] offsets, int field) throws IOException {
+        PaymentFields payment = new PaymentFields();
+        int index = Integer.numberOfTrailingZeros(field);
+
+        if (offsets[index] >= 0) {
+            readPaymentField(PAYMENT_FIELDS[index], new JsonStreamReader(json, offsets[index]), payment);
+        }
+
+        return payment.build();
+    }
+
+    private void readPaymentField(String name, JsonStreamReader reader, PaymentFields payment) throws IOException {
+        switch (name) {
+            case "amount":
+                payment.amount = reader.nextDouble();
+                break;
+            case "date":
+                payment.epochMillis = parseEpochMillis(reader.nextStringView());
+                break;
+            case "currency":
+                if (reader.nextNull()) {
+                    break;
+                }
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    if (field.equals("iso_4217")) {
+                        payment.currency = interned(reader);
+                    } else if (field.equals("symbol")) {
+                        payment.currencySymbol = interned(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                break;
+            case "player":
+                if (reader.nextNull()) {
+                    break;
+                }
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "id":
+                            payment.playerId = reader.nextInt();
+                            break;
+                        case "name":
+                            payment.playerName = interned(reader);
+                            break;
+                        case "uuid":
+                            payment.uuid = interner.intern(TebexUuids.parse(reader.nextStringView()));
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                break;
+            case "status":
+                payment.status = parseStatus(reader.nextStringView());
+                break;
+            case "packages":
+                payment.packages = getBoughtPackages(reader);
+                break;
+            default:
+                reader.skipValue();
+        }
+    }
+
+    /**
+     * @return the group of a payment field, or 0 if it isn't decoded
+     */
+    private static int paymentField(String name) {
+        switch (name) {
+            case "amount":
+                return PAYMENT_AMOUNT;
+            case "date":
+                return PAYMENT_DATE;
+            case "currency":
+                return PAYMENT_CURRENCY;
+            case "player":
+                return PAYMENT_PLAYER;
+            case "status":
+                return PAYMENT_STATUS;
+            case "packages":
+                return PAYMENT_PACKAGES;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return the bit index of the group of a payment field, or -1 if it isn't decoded
+     */
+    private static int paymentFieldIndex(CharSequence name) {
+        for (int i = 0; i < PAYMENT_FIELDS.length; i++) {
+            if (PAYMENT_FIELDS[i].contentEquals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private PackageMap getBoughtPackages(JsonStreamReader reader) throws IOException {
+        if (reader.nextNull()) {
+            return PackageMap.EMPTY;
+        }
+
+        PackageMap.Builder packages = new PackageMap.Builder();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int id = 0;
+            String name = "";
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if (field.equals("id")) {
+                    id = reader.nextInt();
+                } else if (field.equals("name")) {
+                    name = interned(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            packages.put(id, name);
+        }
+        reader.endArray();
+
+        return packages.build();
+    }
+
+    /**
+     * Decodes a {@code /gift-cards} response
+     * @param giftCardId The id of the requested gift card
+     * @return the {@link GiftCard} or null if the response doesn't contain one
+     */
+    @Nullable
+    public GiftCard parseGiftCard(JsonStreamReader reader, int giftCardId) throws IOException, TebexException {
+        ErrorState error = new ErrorState();
+        GiftCard giftCard = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (name.equals("data") && !reader.nextNull()) {
+                giftCard = parseGiftCardData(reader, giftCardId);
+            } else {
+                error.readOrSkip(name, reader);
+            }
+        }
+        reader.endObject();
+        error.check();
+
+        return giftCard;
+    }
+
+    private GiftCard parseGiftCardData(JsonStreamReader reader, int giftCardId) throws IOException {
+        int id = giftCardId;
+        String code = "";
+        double starting = 0;
+        double remaining = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "code":
+                    code = string(reader);
+                    break;
+                case "balance":
+                    if (reader.nextNull()) {
+                        break;
+                    }
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("starting")) {
+                            starting = reader.nextDouble();
+                        } else if (field.equals("remaining")) {
+                            remaining = reader.nextDouble();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new GiftCard(id, code, starting, remaining);
+    }
+
+    /**
+     * Utility method to parse Tebex's date objects
+     * @param text The text to parse
+     * @return The milliseconds since the epoch, or {@link TebexDates#INVALID} if the text isn't a valid date
+     */
+
+    private long parseEpochMillis(CharSequence text) {
+        return TebexDates.parseEpochMillis(text);
+    }
+
+    /**
+     * Matches a status ignoring case, without the exception {@link Enum#valueOf} throws for the ones we don't know
+     */
+    private static Payment.Status parseStatus(CharSequence text) {
+        if (text == null) {
+            return Payment.Status.UNKNOWN;
+        }
+
+        for (Payment.Status status : STATUSES) {
+            String name = status.name();
+            if (name.length() != text.length()) {
+                continue;
+            }
+
+            int i = 0;
+            while (i < name.length() && Character.toUpperCase(text.charAt(i)) == name.charAt(i)) {
+                i++;
+            }
+            if (i == name.length()) {
+                return status;
+            }
+        }
+
+        return Payment.Status.UNKNOWN;
+    }
+
+    private static String string(JsonStreamReader reader) throws IOException {
+        String value = reader.nextString();
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Reads a string like {@link #string(JsonStreamReader)}, returning its canonical copy
+     */
+    private String interned(JsonStreamReader reader) throws IOException {
+        String value = interner.intern(reader.nextStringView());
+        return value == null ? "" : value;
+    }
+
+    /**
+     * The fields of a payment being decoded, with the defaults of missing values
+     */
+    private static final class PaymentFields {
+        private int id;
+        private double amount;
+        private long epochMillis = TebexDates.INVALID;
+        private String currency = "";
+        private String currencySymbol = "";
+        private int playerId;
+        private String playerName = "";
+        private UUID uuid;
+        private Payment.Status status = Payment.Status.UNKNOWN;
+        private PackageMap packages = PackageMap.EMPTY;
+
+        Payment build() {
+            return new Payment(id, amount, epochMillis, currency, currencySymbol, playerId, playerName, uuid, status, packages);
+        }
+    }
+
+    /**
+     * Collects the {@code error_code} and {@code error_message} fields Tebex adds to
+     * the root object when a request fails
+     */
+    private static class ErrorState {
+        private boolean failed;
+        private String message = "";
+
+        void readOrSkip(String name, JsonStreamReader reader) throws IOException {
+            if (name.equals("error_code")) {
+                failed = !reader.nextNull();
+                if (failed) {
+                    reader.skipValue();
+                }
+            } else if (name.equals("error_message")) {
+                message = string(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        void check() throws TebexException {
+            if (failed) {
+                throw new TebexException(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package me.hugmanrique.tebexapi.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonicalizes the strings and UUIDs that repeat across decoded objects (currencies, package
+ * and player names, payment ids...), so long-lived collections of payments and commands share
+ * a single copy of each value instead of one per object.
+ *
+ * The table has a fixed size and never grows: it is split in sets of two slots, a value is looked
+ * up in the set of its hash and, when missing, replaces the least recently added of the two.
+ * Lookups and updates don't lock; two threads racing on a set at worst both keep their own copy.
+ * Looking up a {@link CharSequence}, e.g. a {@link JsonStreamReader#nextStringView() view} of the
+ * reader buffer, only allocates a {@link String} when the value isn't in the table.
+ */
+public final class TebexInterner {
+    /**
+     * The interner {@link TebexDecoder} uses by default
+     */
+    public static final TebexInterner SHARED = new TebexInterner(4096, 64);
+
+    private final AtomicReferenceArray<String> strings;
+    private final AtomicReferenceArray<UUID> uuids;
+    private final int setMask;
+    private final int maxLength;
+
+    /**
+     * Creates a new instance of {@link TebexInterner}
+     * @param capacity The number of strings and of UUIDs kept, rounded up to a power of two
+     * @param maxLength The length of the longest string kept, longer ones are always copied
+     */
+
+    public TebexInterner(int capacity, int maxLength) {
+        if (capacity < 2 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("The capacity must be between 2 and 2^24");
+        }
+
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.strings = new AtomicReferenceArray<>(size);
+        this.uuids = new AtomicReferenceArray<>(size);
+        this.setMask = size / 2 - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the canonical copy of the text, or null if the text is null
+     */
+    @Nullable
+    public String intern(@Nullable CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+
+        int length = text.length();
+        if (length == 0) {
+            return "";
+        }
+        if (length > maxLength) {
+            return text.toString();
+        }
+
+        int hash = text instanceof String ? text.hashCode() : hash(text);
+        int first = (spread(hash) & setMask) << 1;
+
+        String value = strings.get(first);
+        if (value != null && contentEquals(value, hash, text)) {
+            return value;
+        }
+
+        String second = strings.get(first + 1);
+        if (second != null && contentEquals(second, hash, text)) {
+            return second;
+        }
+
+        String copy = text.toString();
+        strings.lazySet(first + 1, value);
+        strings.lazySet(first, copy);
+        return copy;
+    }
+
+    /**
+     * @return the canonical copy of the UUID, or null if the UUID is null
+     */
+    @Nullable
+    public UUID intern(@Nullable UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+
+        int first = (spread(uuid.hashCode()) & setMask) << 1;
+
+        UUID value = uuids.get(first);
+        if (uuid.equals(value)) {
+            return value;
+        }
+
+        UUID second = uuids.get(first + 1);
+        if (uuid.equals(second)) {
+            return second;
+        }
+
+        uuids.lazySet(first + 1, value);
+        uuids.lazySet(first, uuid);
+        return uuid;
+    }
+
+    /**
+     * Same as {@link String#hashCode()}, so a {@link String} and a view of the same text land in the same set
+     */
+    private static int hash(CharSequence text) {
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ hash >>> 16;
+    }
+
+    private static boolean contentEquals(String value, int hash, CharSequence text) {
+        return value.hashCode() == hash && value.contentEquals(text);
+    }
+}
@@ -0,0 +1,67 @@
+package me.hugmanrique.tebexapi.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Parses player UUIDs in both the dashed form and the undashed form Mojang and Tebex
+ * use, reading the hex digits directly instead of normalizing the text with a regex.
+ */
+public final class TebexUuids {
+
+    private TebexUuids() {
+    }
+
+    /**
+     * Parses a dashed ({@code 069a79f4-44e9-4726-a5be-fca90e38aaf5}) or
+     * undashed ({@code 069a79f444e94726a5befca90e38aaf5}) UUID
+     * @param text The text to parse
+     * @return the {@link UUID} or null if the text is null or empty
+     * @throws IllegalArgumentException If the text isn't a valid UUID
+     */
+    @Nullable
+    public static UUID parse(@Nullable CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return null;
+        }
+
+        int length = text.length();
+        if (length == 32) {
+            return new UUID(hex(text, 0, 16), hex(text, 16, 16));
+        }
+
+        if (length == 36 && text.charAt(8) == '-' && text.charAt(13) == '-'
+                && text.charAt(18) == '-' && text.charAt(23) == '-') {
+            long most = hex(text, 0, 8) << 32 | hex(text, 9, 4) << 16 | hex(text, 14, 4);
+            long least = hex(text, 19, 4) << 48 | hex(text, 24, 12);
+
+            return new UUID(most, least);
+        }
+
+        throw new IllegalArgumentException("Invalid UUID string: " + text);
+    }
+
+    private static long hex(CharSequence text, int start, int count) {
+        long value = 0;
+
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            int digit;
+
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                throw new IllegalArgumentException("Invalid UUID string: " + text);
+            }
+
+            value = value << 4 | digit;
+        }
+
+        return value;
+    }
+}